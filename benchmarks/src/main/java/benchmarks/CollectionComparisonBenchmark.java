@@ -0,0 +1,141 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import mocks.PrimitiveOnlyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CustomAssert;
+
+/**
+ * Compares large lists, sets and arrays, once equal and once with every item different. Comparing the different
+ * collections includes building the message, which is limited to the default maximum number of differences. Running
+ * the benchmarks for several sizes shows whether a comparison scales linearly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionComparisonBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<PrimitiveOnlyObject> list;
+    private List<PrimitiveOnlyObject> equalList;
+    private List<PrimitiveOnlyObject> differentList;
+
+    private List<Integer> linkedList;
+    private List<Integer> equalLinkedList;
+
+    private Set<Integer> set;
+    private Set<Integer> equalSet;
+    private Set<Integer> differentSet;
+
+    private int[] primitiveArray;
+    private int[] equalPrimitiveArray;
+    private int[] differentPrimitiveArray;
+
+    private PrimitiveOnlyObject[] objectArray;
+    private PrimitiveOnlyObject[] equalObjectArray;
+    private PrimitiveOnlyObject[] differentObjectArray;
+
+    @Setup
+    public void createCollections() {
+        list = createObjects(0);
+        equalList = createObjects(0);
+        differentList = createObjects(size);
+
+        linkedList = new LinkedList<>(createIntegers(0));
+        equalLinkedList = new LinkedList<>(createIntegers(0));
+
+        set = new HashSet<>(createIntegers(0));
+        equalSet = new HashSet<>(createIntegers(0));
+        differentSet = new HashSet<>(createIntegers(size));
+
+        primitiveArray = createIntegers(0).stream().mapToInt(Integer::intValue).toArray();
+        equalPrimitiveArray = createIntegers(0).stream().mapToInt(Integer::intValue).toArray();
+        differentPrimitiveArray = createIntegers(size).stream().mapToInt(Integer::intValue).toArray();
+
+        objectArray = createObjects(0).toArray(new PrimitiveOnlyObject[0]);
+        equalObjectArray = createObjects(0).toArray(new PrimitiveOnlyObject[0]);
+        differentObjectArray = createObjects(size).toArray(new PrimitiveOnlyObject[0]);
+    }
+
+    @Benchmark
+    public void equalLists() {
+        CustomAssert.assertObjectsEqual(list, equalList);
+    }
+
+    @Benchmark
+    public String differentLists() {
+        return Differences.describe(list, differentList);
+    }
+
+    @Benchmark
+    public void equalLinkedLists() {
+        CustomAssert.assertObjectsEqual(linkedList, equalLinkedList);
+    }
+
+    @Benchmark
+    public void equalSets() {
+        CustomAssert.assertObjectsEqual(set, equalSet);
+    }
+
+    @Benchmark
+    public String differentSets() {
+        return Differences.describe(set, differentSet);
+    }
+
+    @Benchmark
+    public void equalPrimitiveArrays() {
+        CustomAssert.assertObjectsEqual(primitiveArray, equalPrimitiveArray);
+    }
+
+    @Benchmark
+    public String differentPrimitiveArrays() {
+        return Differences.describe(primitiveArray, differentPrimitiveArray);
+    }
+
+    @Benchmark
+    public void equalObjectArrays() {
+        CustomAssert.assertObjectsEqual(objectArray, equalObjectArray);
+    }
+
+    @Benchmark
+    public String differentObjectArrays() {
+        return Differences.describe(objectArray, differentObjectArray);
+    }
+
+    private List<Integer> createIntegers(int offset) {
+        final var integers = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            integers.add(i + offset);
+        }
+        return integers;
+    }
+
+    private List<PrimitiveOnlyObject> createObjects(int offset) {
+        final var objects = new ArrayList<PrimitiveOnlyObject>(size);
+        for (int i = 0; i < size; i++) {
+            objects.add(new PrimitiveOnlyObject(i + offset, i + offset, offset > 0, 'a'));
+        }
+        return objects;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import mocks.TreeNodeObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CustomAssert;
+
+/**
+ * Compares chains of {@link TreeNodeObject}s, which measures the cost of traversing deep graphs with the explicit
+ * stack. The different chains only differ in their innermost node, so the whole chain has to be traversed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeepGraphBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int depth;
+
+    private TreeNodeObject chain;
+    private TreeNodeObject equalChain;
+    private TreeNodeObject differentChain;
+
+    @Setup
+    public void createChains() {
+        chain = createChain(depth, "leaf");
+        equalChain = createChain(depth, "leaf");
+        differentChain = createChain(depth, "other leaf");
+    }
+
+    @Benchmark
+    public void equalChains() {
+        CustomAssert.assertObjectsEqual(chain, equalChain);
+    }
+
+    @Benchmark
+    public String differentChains() {
+        return Differences.describe(chain, differentChain);
+    }
+
+    static TreeNodeObject createChain(int depth, String leafName) {
+        var node = new TreeNodeObject(leafName);
+        for (int i = 1; i < depth; i++) {
+            final var parent = new TreeNodeObject("node");
+            parent.setChild(node);
+            node = parent;
+        }
+        return node;
+    }
+}
@@ -0,0 +1,22 @@
+package benchmarks;
+
+import utils.CustomAssert;
+
+final class Differences {
+
+    private Differences() {
+    }
+
+    /**
+     * Returns the message of the failed assertion, so that describing the differences is part of the measurement and
+     * cannot be eliminated.
+     */
+    static String describe(Object expected, Object actual) {
+        try {
+            CustomAssert.assertObjectsEqual(expected, actual);
+        } catch (AssertionError e) {
+            return e.getMessage();
+        }
+        throw new IllegalStateException("The compared objects were expected to differ.");
+    }
+}
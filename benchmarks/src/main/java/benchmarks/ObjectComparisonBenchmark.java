@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import mocks.PrimitiveOnlyObject;
+import mocks.PrimitiveOnlyRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CustomAssert;
+
+/**
+ * Compares single flat objects and records, which measures the fixed cost of an assertion.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectComparisonBenchmark {
+
+    private final PrimitiveOnlyObject object = new PrimitiveOnlyObject(1, 2.0, true, 'a');
+    private final PrimitiveOnlyObject equalObject = new PrimitiveOnlyObject(1, 2.0, true, 'a');
+    private final PrimitiveOnlyObject differentObject = new PrimitiveOnlyObject(2, 3.0, false, 'b');
+
+    private final PrimitiveOnlyRecord record = new PrimitiveOnlyRecord(1, 2.0, true, 'a');
+    private final PrimitiveOnlyRecord equalRecord = new PrimitiveOnlyRecord(1, 2.0, true, 'a');
+    private final PrimitiveOnlyRecord differentRecord = new PrimitiveOnlyRecord(2, 3.0, false, 'b');
+
+    @Benchmark
+    public void equalObjects() {
+        CustomAssert.assertObjectsEqual(object, equalObject);
+    }
+
+    @Benchmark
+    public String differentObjects() {
+        return Differences.describe(object, differentObject);
+    }
+
+    @Benchmark
+    public void equalRecords() {
+        CustomAssert.assertObjectsEqual(record, equalRecord);
+    }
+
+    @Benchmark
+    public String differentRecords() {
+        return Differences.describe(record, differentRecord);
+    }
+
+    @Benchmark
+    public boolean deepEqualsOfEqualObjects() {
+        return CustomAssert.deepEquals(object, equalObject);
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import mocks.TreeNodeObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CustomAssert;
+import utils.RecursiveComparison;
+
+/**
+ * Compares chains of {@link TreeNodeObject}s that are shallow enough to be compared recursively, once with the
+ * explicit stack of the comparison and once with the {@link RecursiveComparison recursive traversal} it replaced.
+ * The depths stay below those at which the recursive traversal runs out of stack.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecursionBaselineBenchmark {
+
+    @Param({"3", "10", "100", "1000"})
+    private int depth;
+
+    private TreeNodeObject chain;
+    private TreeNodeObject equalChain;
+    private TreeNodeObject differentChain;
+
+    @Setup
+    public void createChains() {
+        chain = DeepGraphBenchmark.createChain(depth, "leaf");
+        equalChain = DeepGraphBenchmark.createChain(depth, "leaf");
+        differentChain = DeepGraphBenchmark.createChain(depth, "other leaf");
+    }
+
+    @Benchmark
+    public void equalChainsWithExplicitStack() {
+        CustomAssert.assertObjectsEqual(chain, equalChain);
+    }
+
+    @Benchmark
+    public String equalChainsRecursively() {
+        return RecursiveComparison.describeDifferences(chain, equalChain);
+    }
+
+    @Benchmark
+    public String differentChainsWithExplicitStack() {
+        return Differences.describe(chain, differentChain);
+    }
+
+    @Benchmark
+    public String differentChainsRecursively() {
+        return RecursiveComparison.describeDifferences(chain, differentChain);
+    }
+}
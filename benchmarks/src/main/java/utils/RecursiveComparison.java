@@ -0,0 +1,178 @@
+package utils;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * The recursive traversal that {@link Comparison} used before it kept its frames on an explicit stack, as a baseline
+ * for the benchmarks. It uses the same comparison plans, comparators, scope path and visited pairs, so that the
+ * benchmarks only measure the difference between recursing and iterating. Only objects, arrays and lists with the
+ * default options are supported, which is all the benchmarked graphs need.
+ */
+public final class RecursiveComparison {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final ComparisonOptions options = ComparisonOptions.defaults();
+    private final StringBuilder messageBuilder = new StringBuilder();
+    private final ScopePath currentScope = new ScopePath();
+    private IdentityPairSet visitedPairs;
+
+    private RecursiveComparison() {
+    }
+
+    /**
+     * Compares two non-null objects of the same type and returns the message describing the differences, or
+     * {@code null} if there are none.
+     */
+    public static String describeDifferences(Object expected, Object actual) {
+        final var comparison = new RecursiveComparison();
+        if (comparison.generateErrorsFromComparison(expected, actual)) {
+            final var message = comparison.messageBuilder;
+            return message.substring(0, message.length() - LINE_SEPARATOR.length());
+        }
+        return null;
+    }
+
+    private boolean generateErrorsFromComparison(Object expected, Object actual) {
+        final var comparator = options.comparators().entryFor(expected.getClass());
+        if (comparator != null) {
+            return !comparator.areEqual(expected, actual) && findErrorsValueComparison(expected, actual);
+        }
+        final var plan = ComparisonPlan.of(expected.getClass());
+        if (plan.kind() == ComparisonPlan.Kind.OBJECT && !plan.isAccessible()) {
+            return options.inaccessibleTypes().appliedTo(plan) == InaccessibleTypePolicy.EQUALS
+                    && findErrorsValueComparison(expected, actual);
+        }
+        if (!plan.isLeaf() && !visit(expected, actual)) {
+            return false;
+        }
+        var foundError = findErrorsCollections(expected, actual);
+        final var depth = currentScope.depth();
+        for (var property : plan.properties()) {
+            currentScope.pushField(property.name());
+            try {
+                if (property.isPrimitive()) {
+                    if (!property.valuesEqual(expected, actual)) {
+                        findErrorsValueComparison(property.get(expected), property.get(actual));
+                        foundError = true;
+                    }
+                    continue;
+                }
+                final var expectedPropertyValue = property.get(expected);
+                final var actualPropertyValue = property.get(actual);
+                if (expectedPropertyValue == null && actualPropertyValue == null) {
+                    continue;
+                }
+                if (findErrorsNullChecks(expectedPropertyValue, actualPropertyValue)
+                        || findErrorsOfTypes(expectedPropertyValue, actualPropertyValue)) {
+                    foundError = true;
+                    continue;
+                }
+                if (property.kind() == ComparisonPlan.Kind.VALUE || isValue(expectedPropertyValue)) {
+                    foundError |= findErrorsValueComparison(expectedPropertyValue, actualPropertyValue);
+                } else {
+                    foundError |= generateErrorsFromComparison(expectedPropertyValue, actualPropertyValue);
+                }
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable ignored) {
+            } finally {
+                currentScope.truncate(depth);
+            }
+        }
+        return foundError;
+    }
+
+    private boolean findErrorsCollections(Object expected, Object actual) {
+        var foundError = false;
+        final var kind = ComparisonPlan.of(expected.getClass()).kind();
+        if (kind == ComparisonPlan.Kind.ARRAY) {
+            final var expectedLength = Array.getLength(expected);
+            final var actualLength = Array.getLength(actual);
+            if (expectedLength != actualLength) {
+                startMessage().append("' to be of length ").append(expectedLength)
+                        .append(" but was of length ").append(actualLength).append(".").append(LINE_SEPARATOR);
+                return true;
+            }
+            for (int i = 0; i < expectedLength; i++) {
+                currentScope.pushIndex(i);
+                foundError |= findErrorsItems(Array.get(expected, i), Array.get(actual, i));
+                currentScope.pop();
+            }
+        } else if (kind == ComparisonPlan.Kind.LIST) {
+            final var expectedList = (List<?>) expected;
+            final var actualList = (List<?>) actual;
+            if (expectedList.size() != actualList.size()) {
+                startMessage().append("' to be of size ").append(expectedList.size())
+                        .append(" but was of size ").append(actualList.size()).append(".").append(LINE_SEPARATOR);
+                return true;
+            }
+            for (int i = 0; i < expectedList.size(); i++) {
+                currentScope.pushIndex(i);
+                foundError |= findErrorsItems(expectedList.get(i), actualList.get(i));
+                currentScope.pop();
+            }
+        }
+        return foundError;
+    }
+
+    private boolean findErrorsItems(Object expectedItem, Object actualItem) {
+        if (expectedItem == null && actualItem == null) {
+            return false;
+        }
+        if (findErrorsNullChecks(expectedItem, actualItem)) {
+            return true;
+        }
+        if (isValue(expectedItem)) {
+            return findErrorsValueComparison(expectedItem, actualItem);
+        }
+        return generateErrorsFromComparison(expectedItem, actualItem);
+    }
+
+    private boolean findErrorsNullChecks(Object expected, Object actual) {
+        if (expected == null && actual != null) {
+            startMessage().append("' to be null but was not null.").append(LINE_SEPARATOR);
+            return true;
+        }
+        if (expected != null && actual == null) {
+            startMessage().append("' to be not null but was null.").append(LINE_SEPARATOR);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean findErrorsValueComparison(Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            startMessage().append("' to be '").append(expected).append("' but was '").append(actual).append("'.")
+                    .append(LINE_SEPARATOR);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean findErrorsOfTypes(Object expected, Object actual) {
+        if (expected.getClass() != actual.getClass()) {
+            startMessage().append("' to be of type '").append(expected.getClass().getName())
+                    .append("' but was of type '").append(actual.getClass().getName()).append("'.")
+                    .append(LINE_SEPARATOR);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean visit(Object expected, Object actual) {
+        if (visitedPairs == null) {
+            visitedPairs = new IdentityPairSet();
+        }
+        return visitedPairs.add(expected, actual);
+    }
+
+    private StringBuilder startMessage() {
+        return currentScope.appendTo(messageBuilder.append("Expected '"));
+    }
+
+    private static boolean isValue(Object value) {
+        return ComparisonPlan.of(value.getClass()).kind() == ComparisonPlan.Kind.VALUE;
+    }
+}
@@ -0,0 +1,323 @@
+package processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code utils.DeepComparator} for every class and record annotated with {@code utils.DeepComparable}.
+ * The generated class reads the properties of the type with plain field accesses and method calls, so that
+ * {@code CustomAssert} does not have to look up fields and create method handles for the type at runtime.
+ * <p>
+ * The properties are the same that are read through reflection: the components of a record, or the non-static fields
+ * of a class, inherited fields first. Fields that are not accessible from the generated class in the same package are
+ * read through a getter named {@code getX}, or {@code isX} for booleans, instead, and are reported as an error if
+ * there is none. Such getters are expected to return the value of their field. Fields of superclasses in other
+ * modules, such as classes of the JDK, are skipped, since their packages are not open to reflection either. The
+ * processor refers to the types of the library by name and does not depend on it.
+ */
+@SupportedAnnotationTypes(DeepComparableProcessor.ANNOTATION)
+public class DeepComparableProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "utils.DeepComparable";
+    private static final String COMPARATOR = "utils.DeepComparator";
+    private static final String SUFFIX = "_DeepComparator";
+
+    /**
+     * A property with the expression that reads it, in which {@code %1$s} stands for the object it is read from.
+     */
+    private record Property(String name, TypeMirror type, String access) {
+        String readFrom(String target) {
+            return String.format(access, target);
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (var annotation : annotations) {
+            for (var element : round.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+                    error("@DeepComparable can only be applied to classes and records.", element);
+                    continue;
+                }
+                final var type = (TypeElement) element;
+                if (!isAccessible(type)) {
+                    error("@DeepComparable types must not be private or local.", type);
+                    continue;
+                }
+                final var properties = collectProperties(type);
+                if (properties == null) {
+                    continue;
+                }
+                try {
+                    generate(type, properties);
+                } catch (IOException e) {
+                    error("Could not generate the comparator: " + e.getMessage(), type);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        for (Element current = type; current instanceof TypeElement nested; current = nested.getEnclosingElement()) {
+            if (nested.getModifiers().contains(Modifier.PRIVATE) || nested.getNestingKind() == NestingKind.LOCAL
+                    || nested.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the properties of the type in the order in which they are compared, or {@code null} if one of them
+     * cannot be read, after reporting it.
+     */
+    private List<Property> collectProperties(TypeElement type) {
+        final var properties = new ArrayList<Property>();
+        if (type.getKind() == ElementKind.RECORD) {
+            for (var component : type.getRecordComponents()) {
+                properties.add(new Property(component.getSimpleName().toString(), component.asType(),
+                        "%1$s." + component.getAccessor().getSimpleName() + "()"));
+            }
+            return properties;
+        }
+        final var module = processingEnv.getElementUtils().getModuleOf(type);
+        final var hierarchy = new ArrayList<TypeElement>();
+        for (var current = type; current != null; current = superclassOf(current)) {
+            if (processingEnv.getElementUtils().getModuleOf(current) == module) {
+                hierarchy.add(0, current);
+            }
+        }
+        var valid = true;
+        for (var declaringClass : hierarchy) {
+            for (var field : ElementFilter.fieldsIn(declaringClass.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                final var access = accessOf(type, declaringClass, field);
+                if (access == null) {
+                    error("Field '" + field.getSimpleName() + "' of '" + declaringClass.getQualifiedName()
+                            + "' cannot be read by the generated comparator. Make it package-private or add a getter.",
+                            field);
+                    valid = false;
+                    continue;
+                }
+                properties.add(new Property(field.getSimpleName().toString(), field.asType(), access));
+            }
+        }
+        return valid ? properties : null;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        final var superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        final var element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    /**
+     * Returns the expression that reads a field, either directly or through a getter, or {@code null} if neither is
+     * accessible from the package of the type.
+     */
+    private String accessOf(TypeElement type, TypeElement declaringClass, VariableElement field) {
+        if (isAccessibleFrom(type, field)) {
+            // Fields of superclasses may be hidden by fields of the same name of subclasses
+            return declaringClass == type ? "%1$s." + field.getSimpleName()
+                    : "((" + declaringClass.getQualifiedName() + ") %1$s)." + field.getSimpleName();
+        }
+        final var name = field.getSimpleName().toString();
+        final var capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        final var types = processingEnv.getTypeUtils();
+        for (var method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            final var methodName = method.getSimpleName().toString();
+            final var isGetter = methodName.equals("get" + capitalized)
+                    || (methodName.equals("is" + capitalized) && field.asType().getKind() == TypeKind.BOOLEAN);
+            if (isGetter && method.getParameters().isEmpty() && !method.getModifiers().contains(Modifier.STATIC)
+                    && isAccessibleFrom(type, method)
+                    && types.isSameType(types.erasure(method.getReturnType()), types.erasure(field.asType()))) {
+                return "%1$s." + methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessibleFrom(TypeElement type, Element member) {
+        final var modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        // Protected and package-private members are accessible from the same package
+        final var elements = processingEnv.getElementUtils();
+        return modifiers.contains(Modifier.PUBLIC) || elements.getPackageOf(member).equals(elements.getPackageOf(type));
+    }
+
+    private void generate(TypeElement type, List<Property> properties) throws IOException {
+        final var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final var simpleName = comparatorName(type);
+        final var qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        // Raw types, since the comparator reads the properties of instances with any type arguments
+        final var target = type.getQualifiedName().toString();
+
+        final var file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (var out = new PrintWriter(file.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Reads the properties of {@link " + target + "} without reflection. Generated by "
+                    + getClass().getName() + ".");
+            out.println(" */");
+            out.println("@SuppressWarnings(\"rawtypes\")");
+            out.println("public final class " + simpleName + " implements " + COMPARATOR + "<" + target + "> {");
+            out.println();
+            out.print("    private static final String[] NAMES = {");
+            for (int i = 0; i < properties.size(); i++) {
+                out.print((i == 0 ? " " : ", ") + "\"" + properties.get(i).name() + "\"");
+            }
+            out.println(" };");
+            out.print("    private static final Class<?>[] TYPES = {");
+            for (int i = 0; i < properties.size(); i++) {
+                out.print((i == 0 ? " " : ", ") + classLiteral(properties.get(i).type()));
+            }
+            out.println(" };");
+            out.println();
+            out.println("    @Override");
+            out.println("    public String[] propertyNames() {");
+            out.println("        return NAMES.clone();");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Class<?>[] propertyTypes() {");
+            out.println("        return TYPES.clone();");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Object get(" + target + " target, int property) {");
+            out.println("        switch (property) {");
+            for (int i = 0; i < properties.size(); i++) {
+                out.println("            case " + i + ": return " + properties.get(i).readFrom("target") + ";");
+            }
+            printDefault(out, "property");
+            out.println();
+            out.println("    @Override");
+            out.println("    public boolean primitiveEquals(" + target + " expected, " + target
+                    + " actual, int property) {");
+            out.println("        switch (property) {");
+            for (int i = 0; i < properties.size(); i++) {
+                final var property = properties.get(i);
+                if (property.type().getKind().isPrimitive()) {
+                    out.println("            case " + i + ": return " + equalsExpression(property.type(),
+                            property.readFrom("expected"), property.readFrom("actual")) + ";");
+                }
+            }
+            printDefault(out, "primitive property");
+            out.println();
+            out.println("    @Override");
+            out.println("    public int primitiveHashCode(" + target + " target, int property) {");
+            out.println("        switch (property) {");
+            for (int i = 0; i < properties.size(); i++) {
+                final var property = properties.get(i);
+                if (property.type().getKind().isPrimitive()) {
+                    out.println("            case " + i + ": return " + wrapperOf(property.type()) + ".hashCode("
+                            + property.readFrom("target") + ");");
+                }
+            }
+            printDefault(out, "primitive property");
+            out.println("}");
+        }
+    }
+
+    private static void printDefault(PrintWriter out, String description) {
+        out.println("            default: throw new IllegalArgumentException(\"No " + description + " \" + property);");
+        out.println("        }");
+        out.println("    }");
+    }
+
+    /**
+     * Returns the name of the generated class, which {@code CustomAssert} derives the same way from the class.
+     */
+    private static String comparatorName(TypeElement type) {
+        var name = type.getSimpleName() + SUFFIX;
+        for (var enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement outer;
+                enclosing = outer.getEnclosingElement()) {
+            name = outer.getSimpleName() + "_" + name;
+        }
+        return name;
+    }
+
+    /**
+     * Compares two primitives with the semantics of the wrapper's {@code equals}: NaN equals NaN, but 0.0 does not
+     * equal -0.0.
+     */
+    private static String equalsExpression(TypeMirror type, String expected, String actual) {
+        return switch (type.getKind()) {
+            case DOUBLE -> "Double.doubleToLongBits(" + expected + ") == Double.doubleToLongBits(" + actual + ")";
+            case FLOAT -> "Float.floatToIntBits(" + expected + ") == Float.floatToIntBits(" + actual + ")";
+            default -> expected + " == " + actual;
+        };
+    }
+
+    private static String wrapperOf(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "Boolean";
+            case BYTE -> "Byte";
+            case SHORT -> "Short";
+            case CHAR -> "Character";
+            case INT -> "Integer";
+            case LONG -> "Long";
+            case FLOAT -> "Float";
+            case DOUBLE -> "Double";
+            default -> throw new IllegalArgumentException("Not a primitive type: " + type);
+        };
+    }
+
+    private String classLiteral(TypeMirror type) {
+        return erasedName(type) + ".class";
+    }
+
+    private String erasedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return erasedName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        final var erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) erasure).asElement()).getQualifiedName().toString();
+        }
+        return "Object";
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,188 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import utils.DeepComparator;
+
+public class DeepComparableProcessorTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void comparatorReadsFieldsDirectlyOrThroughGetters() throws Exception {
+		final var loader = compile(Map.of("sample/Base.java", """
+				package sample;
+
+				public class Base {
+					private final long id;
+
+					public Base(long id) {
+						this.id = id;
+					}
+
+					public long getId() {
+						return id;
+					}
+				}
+				""", "sample/Order.java", """
+				package sample;
+
+				@utils.DeepComparable
+				public class Order extends Base {
+					final double amount;
+					private final String customer;
+					private final boolean paid;
+					private static int created;
+
+					public Order(long id, double amount, String customer, boolean paid) {
+						super(id);
+						this.amount = amount;
+						this.customer = customer;
+						this.paid = paid;
+					}
+
+					public String getCustomer() {
+						return customer;
+					}
+
+					public boolean isPaid() {
+						return paid;
+					}
+				}
+				"""));
+
+		final var comparator = (DeepComparator<?>) loader.loadClass("sample.Order_DeepComparator")
+				.getConstructor().newInstance();
+		assertArrayEquals(new String[] { "id", "amount", "customer", "paid" }, comparator.propertyNames());
+		assertArrayEquals(new Class<?>[] { long.class, double.class, String.class, boolean.class },
+				comparator.propertyTypes());
+
+		final var order = loader.loadClass("sample.Order").getConstructor(long.class, double.class, String.class,
+				boolean.class);
+		assertObjectsEqual(order.newInstance(1L, Double.NaN, "a", true), order.newInstance(1L, Double.NaN, "a", true));
+		try {
+			assertObjectsEqual(order.newInstance(1L, 0.0, "a", true), order.newInstance(2L, -0.0, "b", true));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.id' to be '1' but was '2'." + System.lineSeparator()
+					+ "Expected '.amount' to be '0.0' but was '-0.0'." + System.lineSeparator()
+					+ "Expected '.customer' to be 'a' but was 'b'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void comparatorOfNestedRecordIsNamedAfterEnclosingClasses() throws Exception {
+		final var loader = compile(Map.of("sample/Order.java", """
+				package sample;
+
+				public class Order {
+					@utils.DeepComparable
+					public record Line(int quantity, java.util.List<String> labels) {
+					}
+				}
+				"""));
+
+		final var comparator = (DeepComparator<?>) loader.loadClass("sample.Order_Line_DeepComparator")
+				.getConstructor().newInstance();
+		assertArrayEquals(new String[] { "quantity", "labels" }, comparator.propertyNames());
+
+		final var line = loader.loadClass("sample.Order$Line").getConstructor(int.class, List.class);
+		try {
+			assertObjectsEqual(line.newInstance(1, List.of("a")), line.newInstance(2, List.of("b")));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.quantity' to be '1' but was '2'." + System.lineSeparator()
+					+ "Expected '.labels[0]' to be 'a' but was 'b'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void privateFieldsWithoutGetterAreReported() throws IOException {
+		final var diagnostics = new DiagnosticCollector<JavaFileObject>();
+
+		final var success = compile(Map.of("sample/Order.java", """
+				package sample;
+
+				@utils.DeepComparable
+				public class Order {
+					private int quantity;
+				}
+				"""), diagnostics);
+
+		assertFalse(success, "Compilation should have failed.");
+		assertTrue(diagnostics.getDiagnostics().stream().anyMatch(diagnostic -> diagnostic.getMessage(null)
+				.equals("Field 'quantity' of 'sample.Order' cannot be read by the generated comparator. "
+						+ "Make it package-private or add a getter.")), "Field should be reported.");
+	}
+
+	@Test
+	public void methodsNamedAfterFieldsAreNoGetters() throws IOException {
+		final var diagnostics = new DiagnosticCollector<JavaFileObject>();
+
+		final var success = compile(Map.of("sample/Order.java", """
+				package sample;
+
+				@utils.DeepComparable
+				public class Order {
+					private int quantity;
+
+					public int quantity() {
+						return quantity + 1;
+					}
+				}
+				"""), diagnostics);
+
+		assertFalse(success, "Compilation should have failed.");
+		assertTrue(diagnostics.getDiagnostics().stream().anyMatch(diagnostic -> diagnostic.getMessage(null)
+				.startsWith("Field 'quantity' of 'sample.Order' cannot be read")), "Field should be reported.");
+	}
+
+	private URLClassLoader compile(Map<String, String> sources) throws IOException {
+		final var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		if (!compile(sources, diagnostics)) {
+			fail("Compilation failed: " + diagnostics.getDiagnostics());
+		}
+		return new URLClassLoader(new java.net.URL[] { directory.toUri().toURL() }, getClass().getClassLoader());
+	}
+
+	private boolean compile(Map<String, String> sources, DiagnosticCollector<JavaFileObject> diagnostics)
+			throws IOException {
+		final var files = new ArrayList<Path>();
+		for (var source : sources.entrySet()) {
+			final var file = directory.resolve(source.getKey());
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, source.getValue());
+			files.add(file);
+		}
+		final var compiler = ToolProvider.getSystemJavaCompiler();
+		try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			final var options = List.of("-d", directory.toString(), "-s", directory.toString(), "-classpath",
+					System.getProperty("java.class.path"));
+			final var task = compiler.getTask(null, fileManager, diagnostics, options, null,
+					fileManager.getJavaFileObjectsFromPaths(files));
+			task.setProcessors(List.of(new DeepComparableProcessor()));
+			return task.call();
+		}
+	}
+}
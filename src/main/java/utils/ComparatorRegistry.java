@@ -0,0 +1,146 @@
+package utils;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Comparators for types whose instances are compared as a whole instead of field by field. Two instances of such a
+ * type are equal if its comparator returns zero, and are otherwise reported with their string representations, like
+ * primitives. A comparator applies to the type it is registered for and to its subtypes, unless a subtype has a
+ * comparator of its own.
+ * <p>
+ * The {@link #defaults() default registry} compares common value types of the JDK, e.g. {@link BigDecimal},
+ * {@link Instant}, {@link UUID} and {@link LocalDate}, with their {@code equals}, since their fields are neither
+ * accessible nor meant to be compared. Instances are immutable; {@link #withComparator(Class, Comparator)} returns a
+ * modified copy. The comparator of a class is looked up once per registry and cached for the lifetime of the class.
+ */
+public final class ComparatorRegistry {
+
+    private static final ComparatorRegistry DEFAULTS = new ComparatorRegistry(builtInEntries());
+
+    /**
+     * Stands in for the comparator of classes without one, so that their lookup is cached as well.
+     */
+    private static final Entry NONE = new Entry(null);
+
+    private final Map<Class<?>, Entry> entries;
+    private final ClassValue<Entry> dispatch = new ClassValue<>() {
+        @Override
+        protected Entry computeValue(Class<?> type) {
+            final var entry = findEntry(type);
+            return entry == null ? NONE : entry;
+        }
+    };
+
+    private ComparatorRegistry(Map<Class<?>, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static ComparatorRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Compares instances of the type, and of its subtypes, with the comparator. Replaces the comparator the type had
+     * before, including a built-in one.
+     */
+    public <T> ComparatorRegistry withComparator(Class<T> type, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator, "comparator");
+        if (type.isArray() || ComparisonPlan.kindOf(type) == ComparisonPlan.Kind.VALUE) {
+            throw new IllegalArgumentException("Primitives, their wrappers, strings, enums and arrays are always "
+                    + "compared by their values or items, but a comparator was registered for " + type.getName()
+                    + ".");
+        }
+        final var copy = new LinkedHashMap<>(entries);
+        copy.put(type, new Entry(comparator));
+        return new ComparatorRegistry(copy);
+    }
+
+    /**
+     * Returns the comparator for instances of the class, or {@code null} if they are compared field by field.
+     */
+    Entry entryFor(Class<?> type) {
+        final var entry = dispatch.get(type);
+        return entry == NONE ? null : entry;
+    }
+
+    private Entry findEntry(Class<?> type) {
+        // Superclasses take precedence over interfaces, like for methods
+        for (var current = type; current != null; current = current.getSuperclass()) {
+            final var entry = entries.get(current);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        for (var current = type; current != null; current = current.getSuperclass()) {
+            for (var implemented : current.getInterfaces()) {
+                final var entry = findEntry(implemented);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<Class<?>, Entry> builtInEntries() {
+        final var entries = new LinkedHashMap<Class<?>, Entry>();
+        for (var type : new Class<?>[] { BigDecimal.class, BigInteger.class, UUID.class, URI.class, File.class,
+                Path.class, Charset.class, Currency.class, Locale.class, Class.class, Instant.class, Duration.class,
+                Period.class, LocalDate.class, LocalTime.class, LocalDateTime.class, OffsetTime.class,
+                OffsetDateTime.class, ZonedDateTime.class, ZoneId.class, Year.class, YearMonth.class,
+                MonthDay.class }) {
+            entries.put(type, new Entry(null));
+        }
+        return entries;
+    }
+
+    /**
+     * The comparator of a type, or its {@code equals} for the built-in comparators.
+     */
+    static final class Entry {
+        @SuppressWarnings("rawtypes")
+        private final Comparator comparator;
+
+        private Entry(Comparator<?> comparator) {
+            this.comparator = comparator;
+        }
+
+        /**
+         * Whether the comparison is the {@code equals} of the type, so that its {@code hashCode} is consistent with
+         * it and its string representation identifies the instance.
+         */
+        boolean usesEquals() {
+            return comparator == null;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean areEqual(Object expected, Object actual) {
+            return comparator == null ? expected.equals(actual) : comparator.compare(expected, actual) == 0;
+        }
+    }
+}
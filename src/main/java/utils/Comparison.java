@@ -0,0 +1,1470 @@
+package utils;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.BaseStream;
+
+/**
+ * A single deep comparison of two objects of the same type. Either collects a message for every difference, or, in
+ * fail-fast mode, stops at the first difference without building any messages.
+ */
+@SuppressWarnings("rawtypes") // We ignore this warning since we want raw types and cannot infer types
+final class Comparison {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * The scratch state of the last comparison on each thread, reused so that comparing equal graphs does not
+     * allocate.
+     */
+    private static final ThreadLocal<Workspace> WORKSPACES = new ThreadLocal<>();
+
+    /**
+     * The number of chunks per worker of the fork/join pool that a parallel comparison splits into, so that workers
+     * that finish early can take over chunks of the others.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ComparisonOptions options;
+    private final StringBuilder messageBuilder;
+    private final Workspace workspace;
+    private final ScopePath currentScope;
+    private Frame[] frames;
+    private int top = -1;
+    /** The index of the topmost frame whose time is measured for the metrics, or -1. */
+    private int timedTop = -1;
+    private long differenceCount;
+    private boolean stopped;
+
+    // Counted even without metrics, since counting is cheaper than checking whether to count
+    private final ComparisonMetrics metrics;
+    private long objectsVisited;
+    private long fieldsRead;
+    private long elementsCompared;
+    private long equalsCalls;
+
+    // Only used by the comparison of a chunk in parallel mode
+    private final IdentityPairSet inheritedPairs;
+    private int[] messageStarts;
+    private int messageCount;
+    /**
+     * The (expected, actual) pairs that the chunk compared, in the order it started comparing them, so that the
+     * differences found below pairs that an earlier chunk compared as well can be left out when merging.
+     */
+    private Object[] visitedPairs;
+    /** The first message, the first message after, and the last pair below each visited pair. */
+    private int[] visitBounds;
+    /** The differences counted before and after comparing each visited pair. */
+    private long[] visitDifferences;
+    private int visitCount;
+    private Throwable failure;
+    /**
+     * Whether the chunk reached an iterator, a stream or an iterable that is no collection. It leaves them unread and
+     * stops, since another chunk may reach the same ones and they can only be read once.
+     */
+    private boolean reachedConsumable;
+    private boolean forked;
+
+    private Comparison(ComparisonOptions options, boolean failFast) {
+        this.options = options;
+        this.messageBuilder = failFast ? null : new StringBuilder();
+        this.workspace = Workspace.acquire();
+        this.currentScope = workspace.scope;
+        this.frames = workspace.frames;
+        this.metrics = options.metrics();
+        this.inheritedPairs = null;
+    }
+
+    /**
+     * Creates the comparison of a chunk that continues the given path. The inherited pairs have been compared or are
+     * being compared by the comparison that started the chunk, so they are not compared again. They are only read
+     * while the chunks run.
+     */
+    private Comparison(ComparisonOptions options, ScopePath path, IdentityPairSet inheritedPairs) {
+        this.options = options;
+        this.messageBuilder = new StringBuilder();
+        this.workspace = Workspace.acquire();
+        this.currentScope = workspace.scope;
+        this.frames = workspace.frames;
+        this.metrics = options.metrics();
+        this.inheritedPairs = inheritedPairs;
+        currentScope.pushAll(path);
+        this.messageStarts = new int[16];
+        this.visitedPairs = new Object[32];
+        this.visitBounds = new int[48];
+        this.visitDifferences = new long[32];
+    }
+
+    /**
+     * Compares two non-null objects of the same type and returns the message describing the differences, or
+     * {@code null} if there are none.
+     */
+    static String describeDifferences(Object expected, Object actual, ComparisonOptions options) {
+        final var comparison = new Comparison(options, false);
+        final var event = ComparisonEvent.isRecording() ? new ComparisonEvent() : null;
+        final var startNanos = event == null ? 0 : System.nanoTime();
+        final boolean foundError;
+        try {
+            if (event != null) {
+                event.begin();
+            }
+            foundError = comparison.generateErrorsFromComparison(expected, actual);
+        } finally {
+            comparison.release();
+        }
+        if (event != null) {
+            event.end();
+            final var durationNanos = System.nanoTime() - startNanos;
+            if (durationNanos >= options.eventDurationThreshold().toNanos()
+                    || comparison.objectsVisited >= options.eventNodeThreshold()) {
+                event.record(expected.getClass(), comparison.objectsVisited, comparison.differenceCount,
+                        comparison.forked);
+            }
+        }
+        // Only return a message if it is not empty
+        if (foundError) {
+            return finishMessage(comparison.messageBuilder, comparison.differenceCount, comparison.stopped, options);
+        }
+        return null;
+    }
+
+    /**
+     * Turns the messages of the reported differences, each followed by a line separator, into the assertion message,
+     * summarizing the differences beyond the maximum.
+     */
+    static String finishMessage(StringBuilder message, long differenceCount, boolean stopped,
+                                ComparisonOptions options) {
+        final var unreportedDifferences = differenceCount - options.maxDifferences();
+        if (unreportedDifferences <= 0) {
+            return message.substring(0, message.length() - LINE_SEPARATOR.length());
+        }
+        if (stopped) {
+            return message.append("...and at least 1 more difference.").toString();
+        }
+        return message.append("...and ").append(unreportedDifferences)
+                .append(unreportedDifferences == 1 ? " more difference." : " more differences.").toString();
+    }
+
+    /**
+     * Whether two non-null objects are compared with each other instead of being reported as different types. Apart
+     * from objects of the same class, these are any two iterators and any two streams, whose classes depend on how
+     * they were created rather than on their items.
+     */
+    static boolean haveSameType(Object expected, Object actual) {
+        if (expected.getClass() == actual.getClass()) {
+            return true;
+        }
+        return expected instanceof Iterator && actual instanceof Iterator
+                || expected instanceof BaseStream && actual instanceof BaseStream;
+    }
+
+    /**
+     * Compares two non-null objects of the same type and returns at the first difference.
+     */
+    static boolean hasDifferences(Object expected, Object actual) {
+        return hasDifferences(expected, actual, ComparisonOptions.defaults());
+    }
+
+    /**
+     * Compares two non-null objects of the same type with the given options and returns at the first difference.
+     */
+    static boolean hasDifferences(Object expected, Object actual, ComparisonOptions options) {
+        final var comparison = new Comparison(options, true);
+        try {
+            return comparison.generateErrorsFromComparison(expected, actual);
+        } finally {
+            comparison.release();
+        }
+    }
+
+    /**
+     * Walks both graphs depth first. Instead of recursing, every object, array or list that is being compared has a
+     * frame on an explicit stack, so the depth of the graphs is only limited by the heap. Frames are processed one
+     * field or item at a time, which reports differences in the same order as a recursive walk would.
+     */
+    private boolean generateErrorsFromComparison(Object expected, Object actual) {
+        compareObjects(expected, actual);
+        run();
+        return differenceCount > 0;
+    }
+
+    /**
+     * Compares the items or fields from one index up to another index of a single array, list or object, as one
+     * chunk of a parallel comparison.
+     */
+    private void compareChunk(int type, Object expected, Object actual, ComparisonPlan plan, int from, int to,
+                              boolean primitiveItems) {
+        final var frame = push(type, expected, actual);
+        frame.plan = plan;
+        frame.index = from;
+        frame.length = to;
+        frame.primitiveItems = primitiveItems;
+        if (type == Frame.OBJECT) {
+            frame.stage = Frame.PROPERTIES;
+        }
+        run();
+    }
+
+    private void run() {
+        while (top >= 0 && !stopped) {
+            final var frame = frames[top];
+            currentScope.truncate(frame.scopeDepth);
+            try {
+                switch (frame.type) {
+                    case Frame.OBJECT -> compareNextProperty(frame);
+                    case Frame.ARRAY_ITEMS -> compareNextArrayItem(frame);
+                    case Frame.LIST_ITEMS -> compareNextListItem(frame);
+                    case Frame.ITERATOR_ITEMS -> compareNextIteratorItem(frame);
+                    case Frame.MAP_ENTRIES -> compareNextMapEntry(frame);
+                    case Frame.SORTED_MAP_ENTRIES -> compareNextSortedMapEntry(frame);
+                    default -> throw new IllegalStateException("Unknown frame type " + frame.type + ".");
+                }
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable throwable) {
+                unwind(throwable);
+            }
+        }
+    }
+
+    /**
+     * Schedules the structural comparison of two non-null objects of the same type: first as collections, then
+     * field by field. Objects of types with a registered comparator are compared right away instead.
+     */
+    private void compareObjects(Object expected, Object actual) {
+        final var comparator = options.comparators().entryFor(expected.getClass());
+        if (comparator != null) {
+            equalsCalls++;
+            if (!comparator.areEqual(expected, actual)) {
+                findErrorsValueDifference(expected, actual);
+            }
+            return;
+        }
+        final var plan = ComparisonPlan.of(expected.getClass());
+        if (plan.kind() == ComparisonPlan.Kind.OBJECT && !plan.isAccessible()) {
+            compareInaccessibleObjects(expected, actual, plan);
+            return;
+        }
+        // Pairs that are already being compared further up (cycles) or have been compared on another path (shared
+        // substructures) do not have to be compared again
+        if (!plan.isLeaf() && !visit(expected, actual)) {
+            return;
+        }
+        if (isChunk() && isConsumable(plan, expected)) {
+            reachedConsumable = true;
+            stopped = true;
+            return;
+        }
+        final var frame = push(Frame.OBJECT, expected, actual);
+        frame.plan = plan;
+        frame.length = plan.properties().length;
+        if (isChunk() && !plan.isLeaf()) {
+            frame.visit = startVisit(expected, actual);
+        }
+        objectsVisited++;
+        if (metrics != null) {
+            frame.startNanos = System.nanoTime();
+            frame.timedParent = timedTop;
+            timedTop = top;
+        }
+    }
+
+    private void compareInaccessibleObjects(Object expected, Object actual, ComparisonPlan plan) {
+        switch (options.inaccessibleTypes().appliedTo(plan)) {
+            case EQUALS -> {
+                equalsCalls++;
+                if (!expected.equals(actual)) {
+                    findErrorsValueDifference(expected, actual);
+                }
+            }
+            case FAIL -> {
+                if (recordDifference()) {
+                    startMessage().append("' to be compared, but the fields of '").append(expected.getClass().getName())
+                            .append("' are not accessible. Register a comparator for it or open its package.")
+                            .append(LINE_SEPARATOR);
+                }
+            }
+            default -> {
+                // Skipped
+            }
+        }
+    }
+
+    private void compareNextProperty(Frame frame) throws Throwable {
+        if (frame.stage == Frame.PENDING) {
+            frame.stage = Frame.COLLECTIONS;
+            findErrorsCollections(frame.expected, frame.actual);
+            return;
+        }
+        // Fields are only compared once the items of a collection have been compared
+        if (frame.stage != Frame.PROPERTIES) {
+            frame.stage = Frame.PROPERTIES;
+            if (isParallel(frame.length)) {
+                final var length = frame.length;
+                frame.index = length;
+                compareInParallel(Frame.OBJECT, frame.expected, frame.actual, frame.plan, length, false);
+                return;
+            }
+        }
+        if (frame.index == frame.length) {
+            pop();
+            return;
+        }
+        final var property = frame.plan.properties()[frame.index++];
+        fieldsRead++;
+        final var expected = frame.expected;
+        final var actual = frame.actual;
+        currentScope.pushField(property.name());
+        if (property.isPrimitive()) {
+            if (!property.valuesEqual(expected, actual)) {
+                findErrorsValueComparison(property.get(expected), property.get(actual));
+            }
+            return;
+        }
+        final var expectedPropertyValue = property.get(expected);
+        final var actualPropertyValue = property.get(actual);
+
+        // Skip null properties
+        if (expectedPropertyValue == null && actualPropertyValue == null) {
+            return;
+        }
+
+        if (findErrorsNullChecks(expectedPropertyValue, actualPropertyValue)) {
+            return;
+        }
+
+        if(findErrorsOfTypes(expectedPropertyValue, actualPropertyValue)) {
+            return;
+        }
+
+        if (property.kind() == ComparisonPlan.Kind.VALUE || isPrimitiveOrPrimitiveWrapper(expectedPropertyValue.getClass()) || isPrimitiveOrPrimitiveWrapper(actualPropertyValue.getClass())) {
+            findErrorsValueComparison(expectedPropertyValue, actualPropertyValue);
+        } else {
+            compareObjects(expectedPropertyValue, actualPropertyValue);
+        }
+    }
+
+    private void compareNextArrayItem(Frame frame) {
+        if (frame.index == frame.length) {
+            pop();
+            return;
+        }
+        final var i = frame.index++;
+        elementsCompared++;
+        currentScope.pushIndex(i);
+        findErrorsItems(Array.get(frame.expected, i), Array.get(frame.actual, i), frame.primitiveItems);
+    }
+
+    private void compareNextListItem(Frame frame) {
+        if (frame.index == frame.length) {
+            pop();
+            return;
+        }
+        final var i = frame.index++;
+        elementsCompared++;
+        currentScope.pushIndex(i);
+        if (frame.expectedIterator == null) {
+            findErrorsItems(((List) frame.expected).get(i), ((List) frame.actual).get(i), frame.primitiveItems);
+        } else {
+            findErrorsItems(frame.expectedIterator.next(), frame.actualIterator.next(), frame.primitiveItems);
+        }
+    }
+
+    /**
+     * Compares the next items of two iterators. Their sizes are only known once one of them is exhausted, so a
+     * different size is reported after the items both have, and the remaining items are only counted.
+     */
+    private void compareNextIteratorItem(Frame frame) {
+        final var expectedHasNext = frame.expectedIterator.hasNext();
+        final var actualHasNext = frame.actualIterator.hasNext();
+        if (expectedHasNext && actualHasNext) {
+            final var i = frame.index++;
+            elementsCompared++;
+            currentScope.pushIndex(i);
+            findErrorsItems(frame.expectedIterator.next(), frame.actualIterator.next(), false);
+            return;
+        }
+        if ((expectedHasNext || actualHasNext) && recordDifference()) {
+            final var expectedSize = frame.index + countRemaining(frame.expectedIterator);
+            final var actualSize = frame.index + countRemaining(frame.actualIterator);
+            startMessage().append("' to be of size ").append(expectedSize).append(" but was of size ")
+                    .append(actualSize).append(".").append(LINE_SEPARATOR);
+        }
+        pop();
+    }
+
+    private static long countRemaining(Iterator iterator) {
+        var count = 0L;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Compares the value of the next entry of the expected map with the value the actual map holds for its key. Once
+     * all entries have been compared, reports the keys that only the actual map contains.
+     */
+    private void compareNextMapEntry(Frame frame) {
+        final var actualMap = (Map) frame.actual;
+        if (frame.expectedIterator.hasNext()) {
+            final var entry = (Map.Entry) frame.expectedIterator.next();
+            final var key = entry.getKey();
+            elementsCompared++;
+            final var actualValue = actualMap.get(key);
+            if (actualValue == null && !actualMap.containsKey(key)) {
+                findErrorsMissingKey(key);
+                return;
+            }
+            currentScope.pushKey(key);
+            findErrorsEntryValues(entry.getValue(), actualValue);
+            return;
+        }
+        final var expectedMap = (Map) frame.expected;
+        for (final var key : actualMap.keySet()) {
+            if (stopped) {
+                break;
+            }
+            if (!expectedMap.containsKey(key)) {
+                findErrorsUnexpectedKey(key);
+            }
+        }
+        pop();
+    }
+
+    /**
+     * Walks two sorted maps with the same order side by side, so that every key is only compared with the key of the
+     * other map at the same position instead of being looked up.
+     */
+    private void compareNextSortedMapEntry(Frame frame) {
+        if (frame.expectedEntry == null && frame.expectedIterator.hasNext()) {
+            frame.expectedEntry = (Map.Entry) frame.expectedIterator.next();
+        }
+        if (frame.actualEntry == null && frame.actualIterator.hasNext()) {
+            frame.actualEntry = (Map.Entry) frame.actualIterator.next();
+        }
+        final var expectedEntry = frame.expectedEntry;
+        final var actualEntry = frame.actualEntry;
+        if (expectedEntry == null && actualEntry == null) {
+            pop();
+            return;
+        }
+        elementsCompared++;
+        final int order;
+        if (expectedEntry == null) {
+            order = 1;
+        } else if (actualEntry == null) {
+            order = -1;
+        } else {
+            order = compareKeys(frame.comparator, expectedEntry.getKey(), actualEntry.getKey());
+        }
+        if (order < 0) {
+            frame.expectedEntry = null;
+            findErrorsMissingKey(expectedEntry.getKey());
+        } else if (order > 0) {
+            frame.actualEntry = null;
+            findErrorsUnexpectedKey(actualEntry.getKey());
+        } else {
+            frame.expectedEntry = null;
+            frame.actualEntry = null;
+            currentScope.pushKey(expectedEntry.getKey());
+            findErrorsEntryValues(expectedEntry.getValue(), actualEntry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compareKeys(Comparator comparator, Object expectedKey, Object actualKey) {
+        if (comparator == null) {
+            return ((Comparable) expectedKey).compareTo(actualKey);
+        }
+        return comparator.compare(expectedKey, actualKey);
+    }
+
+    /**
+     * Handles an exception thrown while comparing. Like a failed field access, it aborts the comparison of the field
+     * it occurred in, including everything nested below that field. Exceptions outside of any field are rethrown, or
+     * kept for the comparison that started a chunk.
+     */
+    private void unwind(Throwable throwable) {
+        while (frames[top].type != Frame.OBJECT || frames[top].stage != Frame.PROPERTIES) {
+            pop();
+            if (top < 0) {
+                if (isChunk()) {
+                    failure = throwable;
+                    return;
+                }
+                if (throwable instanceof final RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(throwable);
+            }
+        }
+    }
+
+    private Frame push(int type, Object expected, Object actual) {
+        top++;
+        if (top == frames.length) {
+            frames = Arrays.copyOf(frames, top * 2);
+        }
+        var frame = frames[top];
+        if (frame == null) {
+            frame = new Frame();
+            frames[top] = frame;
+        }
+        frame.type = type;
+        frame.expected = expected;
+        frame.actual = actual;
+        frame.index = 0;
+        frame.stage = Frame.PENDING;
+        frame.scopeDepth = currentScope.depth();
+        frame.startNanos = 0;
+        frame.childNanos = 0;
+        frame.visit = -1;
+        return frame;
+    }
+
+    private void release() {
+        while (top >= 0) {
+            pop();
+        }
+        if (metrics != null && !isChunk()) {
+            metrics.add(objectsVisited, fieldsRead, elementsCompared, equalsCalls);
+        }
+        workspace.frames = frames;
+        workspace.release();
+    }
+
+    private void pop() {
+        final var frame = frames[top--];
+        if (frame.visit >= 0) {
+            endVisit(frame.visit);
+        }
+        if (frame.startNanos != 0) {
+            // Only the time of the object itself is attributed to its type, the time of the objects it references is
+            // attributed to theirs, so that the times of recursive types do not add up over the depth of the graph
+            final var nanos = System.nanoTime() - frame.startNanos;
+            metrics.addTime(frame.expected.getClass(), nanos - frame.childNanos);
+            timedTop = frame.timedParent;
+            if (timedTop >= 0) {
+                frames[timedTop].childNanos += nanos;
+            }
+        }
+        frame.expected = null;
+        frame.actual = null;
+        frame.plan = null;
+        frame.expectedIterator = null;
+        frame.actualIterator = null;
+        frame.expectedEntry = null;
+        frame.actualEntry = null;
+        frame.comparator = null;
+    }
+
+    private boolean findErrorsNullChecks(Object expectedPropertyValue, Object actualPropertyValue) {
+        if (expectedPropertyValue == null && actualPropertyValue != null) {
+            if (recordDifference()) {
+                startMessage().append("' to be null but was not null.").append(LINE_SEPARATOR);
+            }
+            return true;
+        }
+        if (expectedPropertyValue != null && actualPropertyValue == null) {
+            if (recordDifference()) {
+                startMessage().append("' to be not null but was null.").append(LINE_SEPARATOR);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void findErrorsCollections(Object expectedPropertyValue, Object actualPropertyValue) throws Throwable {
+        if (!isCollection(expectedPropertyValue) && !isCollection(actualPropertyValue)) {
+            return;
+        }
+        if (expectedPropertyValue.getClass().isArray()) {
+            final var expectedLength = Array.getLength(expectedPropertyValue);
+            final var actualLength = Array.getLength(actualPropertyValue);
+            final var isPrimitiveArray = isPrimitiveOrPrimitiveWrapper(
+                    expectedPropertyValue.getClass().getComponentType());
+            if (expectedLength != actualLength) {
+                if (recordDifference()) {
+                    startMessage().append("' to be of length ").append(expectedLength).append(" but was of length ")
+                            .append(actualLength).append(".").append(LINE_SEPARATOR);
+                }
+                return;
+            }
+            if (options.unorderedCollections()) {
+                findErrorsUnordered(fixtureOf(expectedPropertyValue), itemsOf(expectedPropertyValue),
+                        itemsOf(actualPropertyValue));
+                return;
+            }
+            if (expectedPropertyValue.getClass().getComponentType().isPrimitive()) {
+                findErrorsPrimitiveArrays(expectedPropertyValue, actualPropertyValue, expectedLength);
+                return;
+            }
+            if (isParallel(expectedLength)) {
+                compareInParallel(Frame.ARRAY_ITEMS, expectedPropertyValue, actualPropertyValue, null,
+                        expectedLength, isPrimitiveArray);
+                return;
+            }
+            final var frame = push(Frame.ARRAY_ITEMS, expectedPropertyValue, actualPropertyValue);
+            frame.length = expectedLength;
+            frame.primitiveItems = isPrimitiveArray;
+            return;
+        }
+        if (expectedPropertyValue instanceof final List expectedPropertyValueAsList) {
+            final var actualPropertyValueAsList = (List) actualPropertyValue;
+            if (expectedPropertyValueAsList.size() != actualPropertyValueAsList.size()) {
+                if (recordDifference()) {
+                    startMessage().append("' to be of size ").append(expectedPropertyValueAsList.size())
+                            .append(" but was of size ").append(actualPropertyValueAsList.size()).append(".")
+                            .append(LINE_SEPARATOR);
+                }
+                return;
+            }
+            if (options.unorderedCollections()) {
+                findErrorsUnordered(fixtureOf(expectedPropertyValueAsList), expectedPropertyValueAsList,
+                        actualPropertyValueAsList);
+                return;
+            }
+            // Compare index by index
+            if (expectedPropertyValueAsList.size() > 0) {
+                final var firstItem = expectedPropertyValueAsList.get(0);
+                final var size = expectedPropertyValueAsList.size();
+                final var primitiveItems = firstItem != null && isPrimitiveOrPrimitiveWrapper(firstItem.getClass());
+                final var randomAccess = expectedPropertyValueAsList instanceof RandomAccess
+                        && actualPropertyValueAsList instanceof RandomAccess;
+                if (randomAccess && isParallel(size)) {
+                    compareInParallel(Frame.LIST_ITEMS, expectedPropertyValueAsList, actualPropertyValueAsList, null,
+                            size, primitiveItems);
+                    return;
+                }
+                final var frame = push(Frame.LIST_ITEMS, expectedPropertyValueAsList, actualPropertyValueAsList);
+                frame.length = size;
+                frame.primitiveItems = primitiveItems;
+                if (!randomAccess) {
+                    // Sequential lists such as LinkedList would have to be traversed from the start for every index
+                    frame.expectedIterator = expectedPropertyValueAsList.iterator();
+                    frame.actualIterator = actualPropertyValueAsList.iterator();
+                }
+            }
+        } else if (expectedPropertyValue instanceof final Iterable expectedIterable) {
+            // Iterables that are no collections may only be iterable once, e.g. cursors, so their items are buffered
+            final var fixture = fixtureOf(expectedIterable);
+            final var expectedPropertyValueAsIterable = expectedIterable instanceof Collection
+                    ? expectedIterable : bufferExpectedItems(expectedIterable, fixture);
+            final var actualPropertyValueAsIterable = actualPropertyValue instanceof Collection
+                    ? (Iterable) actualPropertyValue : bufferItems((Iterable) actualPropertyValue);
+
+            final var firstSize = ((Collection) expectedPropertyValueAsIterable).size();
+            final var secondSize = ((Collection) actualPropertyValueAsIterable).size();
+            elementsCompared += firstSize;
+
+            if (firstSize != secondSize) {
+                if (recordDifference()) {
+                    startMessage().append("' to be of size ").append(firstSize).append(" but was of size ")
+                            .append(secondSize).append(".").append(LINE_SEPARATOR);
+                }
+                return;
+            }
+
+            final var missingItems = new LinkedHashSet<>();
+            final var unexpectedItems = new LinkedHashSet<>();
+            if (expectedPropertyValueAsIterable instanceof final SortedSet expectedSortedSet
+                    && actualPropertyValueAsIterable instanceof final SortedSet actualSortedSet
+                    && Objects.equals(expectedSortedSet.comparator(), actualSortedSet.comparator())) {
+                findSymmetricDifferenceOfSortedItems(expectedSortedSet.comparator(), expectedSortedSet.iterator(),
+                        actualSortedSet.iterator(), missingItems, unexpectedItems);
+            } else {
+                findSymmetricDifference(expectedPropertyValueAsIterable, actualPropertyValueAsIterable, missingItems,
+                        unexpectedItems, fixture);
+            }
+            final var differentItems = missingItems.size() + unexpectedItems.size();
+            if (differentItems > 0 && recordDifference()) {
+                startMessage().append("' to contain same items, however ").append(differentItems)
+                        .append(" items were different. Missing: ");
+                final var remaining = appendItems(messageBuilder, missingItems, options.maxDifferences());
+                messageBuilder.append(", unexpected: ");
+                appendItems(messageBuilder, unexpectedItems, remaining);
+                messageBuilder.append(".").append(LINE_SEPARATOR);
+            }
+        } else if (expectedPropertyValue instanceof final Map expectedPropertyValueAsMap) {
+            final var actualPropertyValueAsMap = (Map) actualPropertyValue;
+            if (expectedPropertyValueAsMap.isEmpty() && actualPropertyValueAsMap.isEmpty()) {
+                return;
+            }
+            if (expectedPropertyValueAsMap instanceof final SortedMap expectedSortedMap
+                    && actualPropertyValueAsMap instanceof final SortedMap actualSortedMap
+                    && Objects.equals(expectedSortedMap.comparator(), actualSortedMap.comparator())) {
+                final var frame = push(Frame.SORTED_MAP_ENTRIES, expectedSortedMap, actualSortedMap);
+                frame.comparator = expectedSortedMap.comparator();
+                frame.expectedIterator = expectedSortedMap.entrySet().iterator();
+                frame.actualIterator = actualSortedMap.entrySet().iterator();
+            } else {
+                final var frame = push(Frame.MAP_ENTRIES, expectedPropertyValueAsMap, actualPropertyValueAsMap);
+                frame.expectedIterator = expectedPropertyValueAsMap.entrySet().iterator();
+            }
+        } else {
+            final var frame = push(Frame.ITERATOR_ITEMS, expectedPropertyValue, actualPropertyValue);
+            frame.expectedIterator = iteratorOf(expectedPropertyValue);
+            frame.actualIterator = iteratorOf(actualPropertyValue);
+        }
+    }
+
+    /**
+     * Compares the items of two lists or arrays of the same size regardless of their order, and reports the items
+     * that occur less or more often in the actual items than in the expected items.
+     */
+    private void findErrorsUnordered(FixtureCache.Fixture fixture, Iterable expectedItems, Iterable actualItems) {
+        var expectedCounts = fixture == null ? null : FixtureCache.Fixture.valueFor(fixture.counts, options);
+        if (expectedCounts == null) {
+            expectedCounts = new ItemCounts(options);
+            for (var item : expectedItems) {
+                expectedCounts.addExpected(item);
+            }
+            if (fixture != null) {
+                fixture.counts = new FixtureCache.Derived<>(options, expectedCounts);
+            }
+        }
+        final var counts = fixture == null ? expectedCounts : expectedCounts.copyExpected(options);
+        elementsCompared += counts.expectedCount();
+        for (var item : actualItems) {
+            counts.addActual(item);
+        }
+        var differentItems = 0L;
+        for (var group : counts.groups()) {
+            differentItems += Math.abs(group.expectedCount - group.actualCount);
+        }
+        if (differentItems > 0 && recordDifference()) {
+            startMessage().append("' to contain same items in any order, however ").append(differentItems)
+                    .append(" items were different. Missing: ");
+            final var remaining = appendItemCounts(counts, true, options.maxDifferences());
+            messageBuilder.append(", unexpected: ");
+            appendItemCounts(counts, false, remaining);
+            messageBuilder.append(".").append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Appends at most {@code limit} items, followed by the number of items that were left out, e.g.
+     * {@code [a, b, ...and 3 more]}, so that a single difference of large collections does not produce a huge message.
+     * Returns how many items may still be appended to the same difference.
+     */
+    static int appendItems(StringBuilder builder, Collection<?> items, int limit) {
+        builder.append('[');
+        var appended = 0;
+        for (var item : items) {
+            if (appended == limit) {
+                break;
+            }
+            if (appended > 0) {
+                builder.append(", ");
+            }
+            builder.append(item);
+            appended++;
+        }
+        appendOmitted(builder, appended, items.size() - appended);
+        builder.append(']');
+        return limit - appended;
+    }
+
+    private static void appendOmitted(StringBuilder builder, int appended, long omitted) {
+        if (omitted > 0) {
+            if (appended > 0) {
+                builder.append(", ");
+            }
+            builder.append("...and ").append(omitted).append(" more");
+        }
+    }
+
+    /**
+     * Appends the items that occur more often in the expected items, or in the actual items, with their surplus if
+     * it is more than one, e.g. {@code [a, b (2 times)]}. Like {@link #appendItems(StringBuilder, Collection, int)},
+     * at most {@code limit} items are appended and the rest is counted.
+     */
+    private int appendItemCounts(ItemCounts counts, boolean missing, int limit) {
+        messageBuilder.append('[');
+        var appended = 0;
+        var omitted = 0L;
+        for (var group : counts.groups()) {
+            final var surplus = missing ? group.expectedCount - group.actualCount
+                    : group.actualCount - group.expectedCount;
+            if (surplus <= 0) {
+                continue;
+            }
+            if (appended == limit) {
+                omitted += surplus;
+                continue;
+            }
+            if (appended > 0) {
+                messageBuilder.append(", ");
+            }
+            appended++;
+            messageBuilder.append(group.item);
+            if (surplus > 1) {
+                messageBuilder.append(" (").append(surplus).append(" times)");
+            }
+        }
+        appendOmitted(messageBuilder, appended, omitted);
+        messageBuilder.append(']');
+        return limit - appended;
+    }
+
+    private static Iterable itemsOf(Object array) {
+        if (array instanceof final Object[] objects) {
+            return Arrays.asList(objects);
+        }
+        final var length = Array.getLength(array);
+        final var items = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            items.add(Array.get(array, i));
+        }
+        return items;
+    }
+
+    private static Iterator iteratorOf(Object iteratorOrStream) {
+        if (iteratorOrStream instanceof final BaseStream stream) {
+            return stream.iterator();
+        }
+        return (Iterator) iteratorOrStream;
+    }
+
+    /**
+     * Returns the entry of the fixture cache for an expected collection, or {@code null} if there is no cache.
+     */
+    private FixtureCache.Fixture fixtureOf(Object expected) {
+        final var fixtureCache = options.fixtureCache();
+        return fixtureCache == null ? null : fixtureCache.get(expected);
+    }
+
+    private static List<Object> bufferExpectedItems(Iterable iterable, FixtureCache.Fixture fixture) {
+        if (fixture == null) {
+            return bufferItems(iterable);
+        }
+        var items = fixture.items;
+        if (items == null) {
+            items = bufferItems(iterable);
+            fixture.items = items;
+        }
+        return items;
+    }
+
+    private static List<Object> bufferItems(Iterable iterable) {
+        final var items = new ArrayList<>();
+        for (var item : iterable) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    private void findErrorsMissingKey(Object key) {
+        if (recordDifference()) {
+            startMessage().append("' to contain key '").append(key).append("' but it was missing.")
+                    .append(LINE_SEPARATOR);
+        }
+    }
+
+    private void findErrorsUnexpectedKey(Object key) {
+        if (recordDifference()) {
+            startMessage().append("' to not contain key '").append(key).append("' but it was present.")
+                    .append(LINE_SEPARATOR);
+        }
+    }
+
+    private void findErrorsEntryValues(Object expectedValue, Object actualValue) {
+        // Skip null values
+        if (expectedValue == null && actualValue == null) {
+            return;
+        }
+        if (findErrorsNullChecks(expectedValue, actualValue)) {
+            return;
+        }
+        if (findErrorsOfTypes(expectedValue, actualValue)) {
+            return;
+        }
+        if (isPrimitiveOrPrimitiveWrapper(expectedValue.getClass())) {
+            findErrorsValueComparison(expectedValue, actualValue);
+        } else {
+            compareObjects(expectedValue, actualValue);
+        }
+    }
+
+    /**
+     * Compares two primitive arrays of the same type and length. Mismatching indices are located with
+     * {@link Arrays#mismatch}, so only the values that are reported get boxed.
+     */
+    private void findErrorsPrimitiveArrays(Object expectedArray, Object actualArray, int length) {
+        final IntUnaryOperator mismatchFrom;
+        if (expectedArray instanceof final int[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (int[]) actualArray, from, length);
+        } else if (expectedArray instanceof final long[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (long[]) actualArray, from, length);
+        } else if (expectedArray instanceof final double[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (double[]) actualArray, from, length);
+        } else if (expectedArray instanceof final float[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (float[]) actualArray, from, length);
+        } else if (expectedArray instanceof final byte[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (byte[]) actualArray, from, length);
+        } else if (expectedArray instanceof final char[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (char[]) actualArray, from, length);
+        } else if (expectedArray instanceof final short[] expected) {
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (short[]) actualArray, from, length);
+        } else {
+            final var expected = (boolean[]) expectedArray;
+            mismatchFrom = from -> Arrays.mismatch(expected, from, length, (boolean[]) actualArray, from, length);
+        }
+
+        elementsCompared += length;
+        var from = 0;
+        while (from < length && !stopped) {
+            final var offset = mismatchFrom.applyAsInt(from);
+            if (offset < 0) {
+                break;
+            }
+            final var index = from + offset;
+            currentScope.pushIndex(index);
+            findErrorsValueComparison(Array.get(expectedArray, index), Array.get(actualArray, index));
+            currentScope.pop();
+            from = index + 1;
+        }
+    }
+
+    private void findErrorsItems(Object expectedItem, Object actualItem, boolean isPrimitive) {
+        // Skip null items
+        if (expectedItem == null && actualItem == null) {
+            return;
+        }
+        if (findErrorsNullChecks(expectedItem, actualItem)) {
+            return;
+        }
+        if (isPrimitive || isPrimitiveOrPrimitiveWrapper(expectedItem.getClass())) {
+            findErrorsValueComparison(expectedItem, actualItem);
+        } else {
+            compareObjects(expectedItem, actualItem);
+        }
+    }
+
+    private boolean findErrorsValueComparison(Object expectedPropertyValue, Object actualPropertyValue) {
+        // Only compare if primitives, enum or string
+        equalsCalls++;
+        if (!expectedPropertyValue.equals(actualPropertyValue)) {
+            findErrorsValueDifference(expectedPropertyValue, actualPropertyValue);
+            return true;
+        }
+        return false;
+    }
+
+    private void findErrorsValueDifference(Object expectedValue, Object actualValue) {
+        if (recordDifference()) {
+            startMessage().append("' to be '").append(expectedValue).append("' but was '").append(actualValue)
+                    .append("'.").append(LINE_SEPARATOR);
+        }
+    }
+
+    private boolean findErrorsOfTypes(Object expectedPropertyValue, Object actualPropertyValue) {
+        if (!haveSameType(expectedPropertyValue, actualPropertyValue)) {
+            if (recordDifference()) {
+                startMessage().append("' to be of type '").append(expectedPropertyValue.getClass().getName())
+                        .append("' but was of type '").append(actualPropertyValue.getClass().getName()).append("'.")
+                        .append(LINE_SEPARATOR);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isParallel(int length) {
+        // Chunks describe their differences, so comparisons that stop at the first one stay on this thread. Chunks
+        // do not split again, since the pairs they compared could then not be told apart when merging them.
+        return options.parallel() && messageBuilder != null && !isChunk() && length >= options.parallelThreshold();
+    }
+
+    /**
+     * Splits the items or fields of an array, list or object into chunks that are compared on the fork/join pool,
+     * then reports their differences in the order of the chunks, as if they had been compared on this thread. An
+     * exception that aborted a chunk is rethrown after the differences found before it. If a chunk reached values
+     * that can only be read once, the chunks are dropped and the items or fields are compared on this thread.
+     */
+    private void compareInParallel(int type, Object expected, Object actual, ComparisonPlan plan, int length,
+                                   boolean primitiveItems) throws Throwable {
+        final var path = currentScope.copy();
+        // Holds the pairs that are being compared on the stack as well, so that chunks do not follow cycles back
+        final var pairs = workspace.visitedPairs();
+        final var chunkCount = Math.min(length, CHUNKS_PER_WORKER * ForkJoinPool.getCommonPoolParallelism());
+        final var chunkSize = (length + chunkCount - 1) / chunkCount;
+        final var chunks = new ArrayList<Chunk>(chunkCount);
+        for (int from = 0; from < length; from += chunkSize) {
+            chunks.add(new Chunk(options, path, pairs, type, expected, actual, plan, from,
+                    Math.min(length, from + chunkSize), primitiveItems));
+        }
+        ForkJoinTask.invokeAll(chunks);
+        forked = true;
+        for (final var chunk : chunks) {
+            if (chunk.result.reachedConsumable) {
+                compareOnThisThread(type, expected, actual, length, primitiveItems);
+                return;
+            }
+        }
+        for (final var chunk : chunks) {
+            addWork(chunk.result);
+        }
+        for (final var chunk : chunks) {
+            mergeDifferences(chunk.result);
+            if (chunk.result.failure != null) {
+                throw chunk.result.failure;
+            }
+            if (stopped) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compares the items or fields of an array, list or object that were split into chunks on this thread instead.
+     */
+    private void compareOnThisThread(int type, Object expected, Object actual, int length, boolean primitiveItems) {
+        if (type == Frame.OBJECT) {
+            // The fields are compared by the frame that split them
+            frames[top].index = 0;
+            return;
+        }
+        final var frame = push(type, expected, actual);
+        frame.length = length;
+        frame.primitiveItems = primitiveItems;
+    }
+
+    /**
+     * Reports the differences of a chunk as if they had been found by this comparison. A sequential comparison would
+     * not have compared the pairs again that an earlier chunk compared, so the differences found below them are left
+     * out. They have been counted here already when the earlier chunk was merged, so a difference that the chunk
+     * omitted beyond the maximum would have been omitted by a sequential comparison as well.
+     */
+    private void mergeDifferences(Comparison chunk) {
+        final var pairs = workspace.visitedPairs();
+        // The ranges of messages to leave out, as (first message, first message after) pairs
+        var skippedMessages = new int[8];
+        var skippedCount = 0;
+        var skippedMessageCount = 0;
+        var skippedDifferences = 0L;
+        for (int i = 0; i < chunk.visitCount; i++) {
+            if (pairs.contains(chunk.visitedPairs[2 * i], chunk.visitedPairs[2 * i + 1])) {
+                if (skippedCount * 2 == skippedMessages.length) {
+                    skippedMessages = Arrays.copyOf(skippedMessages, skippedCount * 4);
+                }
+                skippedMessages[2 * skippedCount] = chunk.visitBounds[3 * i];
+                skippedMessages[2 * skippedCount + 1] = chunk.visitBounds[3 * i + 1];
+                skippedCount++;
+                skippedMessageCount += chunk.visitBounds[3 * i + 1] - chunk.visitBounds[3 * i];
+                skippedDifferences += chunk.visitDifferences[2 * i + 1] - chunk.visitDifferences[2 * i];
+                // The pairs below were compared along with it
+                i = chunk.visitBounds[3 * i + 2];
+            }
+        }
+        for (int i = 0; i < chunk.visitCount; i++) {
+            pairs.add(chunk.visitedPairs[2 * i], chunk.visitedPairs[2 * i + 1]);
+        }
+        var skipped = 0;
+        for (int i = 0; i < chunk.messageCount && !stopped; i++) {
+            while (skipped < skippedCount && i >= skippedMessages[2 * skipped + 1]) {
+                skipped++;
+            }
+            if (skipped < skippedCount && i >= skippedMessages[2 * skipped]) {
+                continue;
+            }
+            if (recordDifference()) {
+                final var end = i + 1 < chunk.messageCount ? chunk.messageStarts[i + 1]
+                        : chunk.messageBuilder.length();
+                messageBuilder.append(chunk.messageBuilder, chunk.messageStarts[i], end);
+            }
+        }
+        // A chunk only omits messages once it exceeded the maximum, so this comparison exceeds it as well
+        final var omittedDifferences = chunk.differenceCount - skippedDifferences
+                - (chunk.messageCount - skippedMessageCount);
+        if (omittedDifferences > 0 && !stopped) {
+            differenceCount += omittedDifferences;
+            stopped = options.stopAtMaxDifferences();
+        }
+    }
+
+    /**
+     * Remembers that the chunk started comparing a pair and returns the index of the visit.
+     */
+    private int startVisit(Object expected, Object actual) {
+        if (visitCount * 2 == visitedPairs.length) {
+            visitedPairs = Arrays.copyOf(visitedPairs, visitCount * 4);
+            visitBounds = Arrays.copyOf(visitBounds, visitCount * 6);
+            visitDifferences = Arrays.copyOf(visitDifferences, visitCount * 4);
+        }
+        final var visit = visitCount++;
+        visitedPairs[2 * visit] = expected;
+        visitedPairs[2 * visit + 1] = actual;
+        visitBounds[3 * visit] = messageCount;
+        visitDifferences[2 * visit] = differenceCount;
+        return visit;
+    }
+
+    private void endVisit(int visit) {
+        visitBounds[3 * visit + 1] = messageCount;
+        visitBounds[3 * visit + 2] = visitCount - 1;
+        visitDifferences[2 * visit + 1] = differenceCount;
+    }
+
+    /**
+     * Counts the work of a chunk as work of this comparison, so that it is reported once with the work of the root.
+     */
+    private void addWork(Comparison chunk) {
+        objectsVisited += chunk.objectsVisited;
+        fieldsRead += chunk.fieldsRead;
+        elementsCompared += chunk.elementsCompared;
+        equalsCalls += chunk.equalsCalls;
+    }
+
+    private boolean isChunk() {
+        return messageStarts != null;
+    }
+
+    private boolean visit(Object expected, Object actual) {
+        if (inheritedPairs != null && inheritedPairs.contains(expected, actual)) {
+            return false;
+        }
+        return workspace.visitedPairs().add(expected, actual);
+    }
+
+    /**
+     * Registers a difference and returns whether a message has to be written for it. In fail-fast mode, or once the
+     * maximum number of differences has been exceeded, the comparison may be stopped instead.
+     */
+    private boolean recordDifference() {
+        differenceCount++;
+        if (messageBuilder == null) {
+            stopped = true;
+            return false;
+        }
+        if (differenceCount > options.maxDifferences()) {
+            stopped = options.stopAtMaxDifferences();
+            return false;
+        }
+        if (isChunk()) {
+            if (messageCount == messageStarts.length) {
+                messageStarts = Arrays.copyOf(messageStarts, messageCount * 2);
+            }
+            messageStarts[messageCount++] = messageBuilder.length();
+        }
+        return true;
+    }
+
+    private StringBuilder startMessage() {
+        return currentScope.appendTo(messageBuilder.append("Expected '"));
+    }
+
+    private static boolean isPrimitiveOrPrimitiveWrapper(Class<?> type) {
+        return ComparisonPlan.of(type).kind() == ComparisonPlan.Kind.VALUE;
+    }
+
+    /**
+     * Whether the items of a value can only be read once, e.g. those of iterators, streams and cursors.
+     */
+    private static boolean isConsumable(ComparisonPlan plan, Object value) {
+        return plan.kind() == ComparisonPlan.Kind.ITERATOR
+                || plan.kind() == ComparisonPlan.Kind.ITERABLE && !(value instanceof Collection);
+    }
+
+    private static boolean isCollection(Object object) {
+        final var kind = ComparisonPlan.of(object.getClass()).kind();
+        return kind == ComparisonPlan.Kind.ARRAY || kind == ComparisonPlan.Kind.LIST
+                || kind == ComparisonPlan.Kind.ITERABLE || kind == ComparisonPlan.Kind.MAP
+                || kind == ComparisonPlan.Kind.ITERATOR;
+    }
+
+    /**
+     * Collects the items that only the first iterable contains into {@code missingItems} and those that only the
+     * second iterable contains into {@code unexpectedItems}. The first iterable may have an entry in the fixture
+     * cache, which then keeps what is derived from its items.
+     */
+    private void findSymmetricDifference(Iterable firstIterable, Iterable secondIterable, Set<Object> missingItems,
+                                         Set<Object> unexpectedItems, FixtureCache.Fixture fixture) {
+        final var firstItems = indexExpectedItems(firstIterable, fixture);
+        final var secondItems = firstItems == null ? null : indexItems(secondIterable);
+        if (secondItems == null) {
+            findSymmetricDifferenceByEquals(firstIterable, secondIterable, missingItems, unexpectedItems, fixture);
+            return;
+        }
+        for (var firstIterableItem : firstItems) {
+            if (!secondItems.contains(firstIterableItem)) {
+                missingItems.add(firstIterableItem);
+            }
+        }
+        for (var secondIterableItem : secondItems) {
+            if (!firstItems.contains(secondIterableItem)) {
+                unexpectedItems.add(secondIterableItem);
+            }
+        }
+    }
+
+    /**
+     * Walks the items of two sorted sets with the same order side by side, so that every item is only compared with
+     * the item of the other set at the same position instead of being hashed or searched. Items the comparator
+     * considers equal are the same item, as for the sets themselves.
+     */
+    static void findSymmetricDifferenceOfSortedItems(Comparator comparator, Iterator<?> firstIterator,
+                                                     Iterator<?> secondIterator, Set<Object> missingItems,
+                                                     Set<Object> unexpectedItems) {
+        var firstExhausted = !firstIterator.hasNext();
+        var firstItem = firstExhausted ? null : firstIterator.next();
+        var secondExhausted = !secondIterator.hasNext();
+        var secondItem = secondExhausted ? null : secondIterator.next();
+        while (!firstExhausted || !secondExhausted) {
+            final int order;
+            if (firstExhausted) {
+                order = 1;
+            } else if (secondExhausted) {
+                order = -1;
+            } else {
+                order = compareKeys(comparator, firstItem, secondItem);
+            }
+            if (order <= 0) {
+                if (order < 0) {
+                    missingItems.add(firstItem);
+                }
+                firstExhausted = !firstIterator.hasNext();
+                firstItem = firstExhausted ? null : firstIterator.next();
+            }
+            if (order >= 0) {
+                if (order > 0) {
+                    unexpectedItems.add(secondItem);
+                }
+                secondExhausted = !secondIterator.hasNext();
+                secondItem = secondExhausted ? null : secondIterator.next();
+            }
+        }
+    }
+
+    /**
+     * Collects the distinct items of an iterable into a hash set, or returns {@code null} if an item's type overrides
+     * {@code equals} without {@code hashCode}, in which case hashing would not find equal items.
+     */
+    private static Set<Object> indexExpectedItems(Iterable iterable, FixtureCache.Fixture fixture) {
+        if (fixture == null) {
+            return indexItems(iterable);
+        }
+        var index = fixture.index;
+        if (index == null) {
+            final var items = indexItems(iterable);
+            index = items == null ? FixtureCache.Fixture.UNINDEXABLE : items;
+            fixture.index = index;
+        }
+        return index == FixtureCache.Fixture.UNINDEXABLE ? null : index;
+    }
+
+    private static Set<Object> indexItems(Iterable iterable) {
+        final var items = new HashSet<>();
+        for (var item : iterable) {
+            if (item != null && !ComparisonPlan.of(item.getClass()).hasConsistentHashCode()) {
+                return null;
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Collects the symmetric difference of iterables whose items cannot be looked up by their hash codes. The items
+     * are bucketed by their {@link Fingerprint} instead, so that items with equal structures are found without a
+     * search. Since {@code equals} may also consider items with different structures equal, only the items that are
+     * not found in their bucket are searched for among all items.
+     */
+    private void findSymmetricDifferenceByEquals(Iterable firstIterable, Iterable secondIterable,
+                                                 Set<Object> missingItems, Set<Object> unexpectedItems,
+                                                 FixtureCache.Fixture fixture) {
+        // Items are matched by their equals, which usually considers the order of their own items
+        final var fingerprint = new Fingerprint(options.withUnorderedCollections(false));
+        var firstBuckets = fixture == null ? null : FixtureCache.Fixture.valueFor(fixture.buckets, options);
+        if (firstBuckets == null) {
+            firstBuckets = bucketItems(firstIterable, fingerprint);
+            if (fixture != null) {
+                fixture.buckets = new FixtureCache.Derived<>(options, firstBuckets);
+            }
+        }
+        final var secondBuckets = bucketItems(secondIterable, fingerprint);
+        for (var firstIterableItem : firstIterable) {
+            if (!containsItem(secondBuckets, secondIterable, firstIterableItem, fingerprint)) {
+                missingItems.add(firstIterableItem);
+            }
+        }
+        for (var secondIterableItem : secondIterable) {
+            if (!containsItem(firstBuckets, firstIterable, secondIterableItem, fingerprint)) {
+                unexpectedItems.add(secondIterableItem);
+            }
+        }
+    }
+
+    private static Map<Integer, List<Object>> bucketItems(Iterable iterable, Fingerprint fingerprint) {
+        final var buckets = new HashMap<Integer, List<Object>>();
+        for (var item : iterable) {
+            buckets.computeIfAbsent(fingerprint.hash(item), ignored -> new ArrayList<>(1)).add(item);
+        }
+        return buckets;
+    }
+
+    private boolean containsItem(Map<Integer, List<Object>> buckets, Iterable iterable, Object item,
+                                 Fingerprint fingerprint) {
+        final var bucket = buckets.get(fingerprint.hash(item));
+        if (bucket != null) {
+            for (var candidate : bucket) {
+                equalsCalls++;
+                if (Objects.equals(item, candidate)) {
+                    return true;
+                }
+            }
+        }
+        for (var candidate : iterable) {
+            equalsCalls++;
+            if (Objects.equals(item, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A range of the items or fields of an array, list or object that is compared on the fork/join pool.
+     */
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ComparisonOptions options;
+        private final ScopePath path;
+        private final IdentityPairSet inheritedPairs;
+        private final int type;
+        private final Object expected;
+        private final Object actual;
+        private final ComparisonPlan plan;
+        private final int from;
+        private final int to;
+        private final boolean primitiveItems;
+
+        Comparison result;
+
+        Chunk(ComparisonOptions options, ScopePath path, IdentityPairSet inheritedPairs, int type, Object expected,
+              Object actual, ComparisonPlan plan, int from, int to, boolean primitiveItems) {
+            this.options = options;
+            this.path = path;
+            this.inheritedPairs = inheritedPairs;
+            this.type = type;
+            this.expected = expected;
+            this.actual = actual;
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+            this.primitiveItems = primitiveItems;
+        }
+
+        @Override
+        protected void compute() {
+            final var comparison = new Comparison(options, path, inheritedPairs);
+            try {
+                comparison.compareChunk(type, expected, actual, plan, from, to, primitiveItems);
+            } finally {
+                comparison.release();
+            }
+            result = comparison;
+        }
+    }
+
+    /**
+     * Scratch state of a comparison that can be reused by the next comparison on the same thread. Workspaces that
+     * grew large while comparing huge graphs are not kept.
+     */
+    private static final class Workspace {
+        private static final int MAX_RETAINED_SIZE = 1024;
+
+        final ScopePath scope = new ScopePath();
+        Frame[] frames = new Frame[16];
+        private IdentityPairSet visitedPairs;
+        private boolean inUse;
+
+        static Workspace acquire() {
+            var workspace = WORKSPACES.get();
+            // Comparisons can be nested, e.g. when an equals method asserts, so a workspace may still be in use
+            if (workspace == null || workspace.inUse) {
+                workspace = new Workspace();
+                WORKSPACES.set(workspace);
+            }
+            workspace.inUse = true;
+            return workspace;
+        }
+
+        IdentityPairSet visitedPairs() {
+            if (visitedPairs == null) {
+                visitedPairs = new IdentityPairSet();
+            }
+            return visitedPairs;
+        }
+
+        void release() {
+            scope.clear();
+            if (visitedPairs != null) {
+                visitedPairs = visitedPairs.size() > MAX_RETAINED_SIZE ? null : visitedPairs.clear();
+            }
+            inUse = false;
+            if (frames.length > MAX_RETAINED_SIZE || scope.capacity() > MAX_RETAINED_SIZE) {
+                WORKSPACES.remove();
+            }
+        }
+    }
+
+    /**
+     * The state of comparing one object, or the items of one array, list or map. Frames are reused once popped.
+     */
+    private static final class Frame {
+        static final int OBJECT = 0;
+        static final int ARRAY_ITEMS = 1;
+        static final int LIST_ITEMS = 2;
+        static final int MAP_ENTRIES = 3;
+        static final int SORTED_MAP_ENTRIES = 4;
+        static final int ITERATOR_ITEMS = 5;
+
+        static final int PENDING = 0;
+        static final int COLLECTIONS = 1;
+        static final int PROPERTIES = 2;
+
+        int type;
+        int stage;
+        Object expected;
+        Object actual;
+        ComparisonPlan plan;
+        int scopeDepth;
+        long startNanos;
+        /** The time spent on the timed frames above this one, which is not part of the time of this frame's type. */
+        long childNanos;
+        /** The index of the closest timed frame below this one, or -1. */
+        int timedParent;
+        /** The index of the visit that a chunk recorded for this frame's pair, or -1. */
+        int visit;
+        int index;
+        int length;
+        boolean primitiveItems;
+        Iterator expectedIterator;
+        Iterator actualIterator;
+        Map.Entry expectedEntry;
+        Map.Entry actualEntry;
+        Comparator comparator;
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for an assertion that took at least {@link ComparisonOptions#eventDurationThreshold()} or
+ * visited at least {@link ComparisonOptions#eventNodeThreshold()} objects.
+ */
+@Name("utils.Comparison")
+@Label("Deep Comparison")
+@Category("CustomAssert")
+@Description("Comparison of two object graphs by an assertion")
+final class ComparisonEvent extends Event {
+
+    @Label("Root Type")
+    Class<?> rootType;
+
+    @Label("Node Count")
+    @Description("Objects, arrays and collections that were compared structurally")
+    long nodeCount;
+
+    @Label("Difference Count")
+    long differenceCount;
+
+    @Label("Mode")
+    @Description("Whether parts of the comparison ran in parallel")
+    String mode;
+
+    /**
+     * Whether a recording with this event enabled is running. Does not initialize the flight recorder if no
+     * recording has been started.
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized() && Type.TYPE.isEnabled();
+    }
+
+    void record(Class<?> rootType, long nodeCount, long differenceCount, boolean parallel) {
+        this.rootType = rootType;
+        this.nodeCount = nodeCount;
+        this.differenceCount = differenceCount;
+        this.mode = parallel ? "parallel" : "sequential";
+        commit();
+    }
+
+    private static final class Type {
+        private static final EventType TYPE = EventType.getEventType(ComparisonEvent.class);
+    }
+}
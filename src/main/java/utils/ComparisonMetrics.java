@@ -0,0 +1,90 @@
+package utils;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the work done by the comparisons that were given these metrics with
+ * {@link ComparisonOptions#withMetrics(ComparisonMetrics)}. One instance can be shared by any number of assertions,
+ * also concurrently, e.g. to find the most expensive types of a whole test suite. Comparisons without metrics do not
+ * pay for them.
+ */
+public final class ComparisonMetrics {
+
+    private final LongAdder objectsVisited = new LongAdder();
+    private final LongAdder fieldsRead = new LongAdder();
+    private final LongAdder elementsCompared = new LongAdder();
+    private final LongAdder equalsCalls = new LongAdder();
+    private final Map<Class<?>, LongAdder> nanosPerType = new ConcurrentHashMap<>();
+
+    /**
+     * The number of objects, arrays and collections that were compared structurally.
+     */
+    public long objectsVisited() {
+        return objectsVisited.sum();
+    }
+
+    /**
+     * The number of fields that were compared.
+     */
+    public long fieldsRead() {
+        return fieldsRead.sum();
+    }
+
+    /**
+     * The number of items of arrays, lists and other iterables, and of entries of maps, that were compared.
+     */
+    public long elementsCompared() {
+        return elementsCompared.sum();
+    }
+
+    /**
+     * The number of values that were compared by calling {@code equals}.
+     */
+    public long equalsCalls() {
+        return equalsCalls.sum();
+    }
+
+    /**
+     * The time spent comparing instances of each type, ordered from the most to the least expensive type. The time
+     * spent on the objects an instance references is attributed to their types, so the times of all types add up to
+     * the time of the comparisons, and a deep chain of one type is as expensive as the sum of its nodes.
+     */
+    public Map<Class<?>, Duration> timePerType() {
+        final var times = new LinkedHashMap<Class<?>, Duration>();
+        nanosPerType.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Class<?>, LongAdder> entry) -> entry.getValue().sum())
+                        .reversed())
+                .forEach(entry -> times.put(entry.getKey(), Duration.ofNanos(entry.getValue().sum())));
+        return times;
+    }
+
+    public void reset() {
+        objectsVisited.reset();
+        fieldsRead.reset();
+        elementsCompared.reset();
+        equalsCalls.reset();
+        nanosPerType.clear();
+    }
+
+    void add(long objectsVisited, long fieldsRead, long elementsCompared, long equalsCalls) {
+        this.objectsVisited.add(objectsVisited);
+        this.fieldsRead.add(fieldsRead);
+        this.elementsCompared.add(elementsCompared);
+        this.equalsCalls.add(equalsCalls);
+    }
+
+    void addTime(Class<?> type, long nanos) {
+        nanosPerType.computeIfAbsent(type, ignored -> new LongAdder()).add(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "objects visited: " + objectsVisited() + ", fields read: " + fieldsRead() + ", elements compared: "
+                + elementsCompared() + ", equals calls: " + equalsCalls();
+    }
+}
@@ -0,0 +1,256 @@
+package utils;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings for {@link CustomAssert#assertObjectsEqual(Object, Object, ComparisonOptions)}. Instances are immutable;
+ * every {@code with...} method returns a modified copy.
+ */
+public final class ComparisonOptions {
+
+    /**
+     * The number of differences that are described in an assertion message unless configured otherwise.
+     */
+    public static final int DEFAULT_MAX_DIFFERENCES = 1000;
+
+    /**
+     * The number of items or fields from which a parallel comparison splits a collection or object unless configured
+     * otherwise.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * The duration from which an assertion is recorded as flight recorder event unless configured otherwise.
+     */
+    public static final Duration DEFAULT_EVENT_DURATION_THRESHOLD = Duration.ofMillis(20);
+
+    /**
+     * The number of visited objects from which an assertion is recorded as flight recorder event unless configured
+     * otherwise.
+     */
+    public static final long DEFAULT_EVENT_NODE_THRESHOLD = 100_000;
+
+    private static final ComparisonOptions DEFAULTS = new ComparisonOptions(DEFAULT_MAX_DIFFERENCES, false, false,
+            DEFAULT_PARALLEL_THRESHOLD, null, DEFAULT_EVENT_DURATION_THRESHOLD, DEFAULT_EVENT_NODE_THRESHOLD, false,
+            null, ComparatorRegistry.defaults(), InaccessibleTypePolicy.EQUALS);
+
+    private final int maxDifferences;
+    private final boolean stopAtMaxDifferences;
+    private final boolean parallel;
+    private final int parallelThreshold;
+    private final ComparisonMetrics metrics;
+    private final Duration eventDurationThreshold;
+    private final long eventNodeThreshold;
+    private final boolean unorderedCollections;
+    private final FixtureCache fixtureCache;
+    private final ComparatorRegistry comparators;
+    private final InaccessibleTypePolicy inaccessibleTypes;
+
+    private ComparisonOptions(int maxDifferences, boolean stopAtMaxDifferences, boolean parallel,
+                              int parallelThreshold, ComparisonMetrics metrics, Duration eventDurationThreshold,
+                              long eventNodeThreshold, boolean unorderedCollections, FixtureCache fixtureCache,
+                              ComparatorRegistry comparators, InaccessibleTypePolicy inaccessibleTypes) {
+        this.maxDifferences = maxDifferences;
+        this.stopAtMaxDifferences = stopAtMaxDifferences;
+        this.parallel = parallel;
+        this.parallelThreshold = parallelThreshold;
+        this.metrics = metrics;
+        this.eventDurationThreshold = eventDurationThreshold;
+        this.eventNodeThreshold = eventNodeThreshold;
+        this.unorderedCollections = unorderedCollections;
+        this.fixtureCache = fixtureCache;
+        this.comparators = comparators;
+        this.inaccessibleTypes = inaccessibleTypes;
+    }
+
+    public static ComparisonOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Limits the number of differences that are described in the assertion message. Further differences are only
+     * summarized, e.g. "...and 42 more differences.". The same limit applies to the items that are listed for a single
+     * difference of sets or unordered collections, e.g. "Missing: [a, b, ...and 42 more]".
+     */
+    public ComparisonOptions withMaxDifferences(int maxDifferences) {
+        if (maxDifferences < 1) {
+            throw new IllegalArgumentException("At least one difference has to be reported, but was "
+                    + maxDifferences + ".");
+        }
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * Whether the comparison stops once more than the maximum number of differences have been found, instead of
+     * counting all remaining differences for the summary.
+     */
+    public ComparisonOptions withStopAtMaxDifferences(boolean stopAtMaxDifferences) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * Whether arrays, lists and objects with at least {@link #parallelThreshold()} items or fields are split into
+     * chunks that are compared on the common {@link java.util.concurrent.ForkJoinPool}. The differences are reported
+     * in the same order as by a sequential comparison. Substructures that are shared between items of different
+     * chunks may be compared once per chunk, but their differences are only reported once. Iterators, streams and
+     * iterables that are no collections can only be read once, so arrays, lists and objects that reach them are
+     * compared on the calling thread after all. Chunks do not split again.
+     */
+    public ComparisonOptions withParallel(boolean parallel) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * The number of items or fields from which a parallel comparison splits an array, list or object. Smaller ones
+     * are compared on the calling thread.
+     */
+    public ComparisonOptions withParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("The parallel threshold has to be positive, but was "
+                    + parallelThreshold + ".");
+        }
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * The metrics that comparisons with these options add their work to, or {@code null} to not collect any.
+     */
+    public ComparisonOptions withMetrics(ComparisonMetrics metrics) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * The duration from which an assertion is recorded as {@code utils.Comparison} event of the flight recorder, if
+     * a recording with that event enabled is running.
+     */
+    public ComparisonOptions withEventDurationThreshold(Duration eventDurationThreshold) {
+        if (eventDurationThreshold.isNegative()) {
+            throw new IllegalArgumentException("The event duration threshold must not be negative, but was "
+                    + eventDurationThreshold + ".");
+        }
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * The number of visited objects from which an assertion is recorded as {@code utils.Comparison} event of the
+     * flight recorder, regardless of its duration.
+     */
+    public ComparisonOptions withEventNodeThreshold(long eventNodeThreshold) {
+        if (eventNodeThreshold < 0) {
+            throw new IllegalArgumentException("The event node threshold must not be negative, but was "
+                    + eventNodeThreshold + ".");
+        }
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * Whether lists and arrays are compared regardless of the order of their items, as multisets: every distinct item
+     * has to occur as often in the actual as in the expected collection. Items are matched by deep comparison, so
+     * their classes do not need to implement {@code equals} and {@code hashCode}.
+     */
+    public ComparisonOptions withUnorderedCollections(boolean unorderedCollections) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * The cache that keeps what comparisons with these options derive from their expected objects, or {@code null}
+     * to not cache anything. Using a cache declares the expected objects immutable: they must not change as long as
+     * the cache is used, otherwise changes may go unnoticed.
+     */
+    public ComparisonOptions withFixtureCache(FixtureCache fixtureCache) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                comparators, inaccessibleTypes);
+    }
+
+    /**
+     * The comparators for types whose instances are compared as a whole instead of field by field. Defaults to
+     * {@link ComparatorRegistry#defaults()}; register further comparators with
+     * {@link ComparatorRegistry#withComparator(Class, java.util.Comparator)}.
+     */
+    public ComparisonOptions withComparators(ComparatorRegistry comparators) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache,
+                Objects.requireNonNull(comparators, "comparators"), inaccessibleTypes);
+    }
+
+    /**
+     * How objects are compared whose fields cannot be read, because their class is in a package that is not open to
+     * this library. Defaults to {@link InaccessibleTypePolicy#EQUALS}.
+     */
+    public ComparisonOptions withInaccessibleTypes(InaccessibleTypePolicy inaccessibleTypes) {
+        return new ComparisonOptions(maxDifferences, stopAtMaxDifferences, parallel, parallelThreshold, metrics,
+                eventDurationThreshold, eventNodeThreshold, unorderedCollections, fixtureCache, comparators,
+                Objects.requireNonNull(inaccessibleTypes, "inaccessibleTypes"));
+    }
+
+    public int maxDifferences() {
+        return maxDifferences;
+    }
+
+    public boolean stopAtMaxDifferences() {
+        return stopAtMaxDifferences;
+    }
+
+    public boolean parallel() {
+        return parallel;
+    }
+
+    public int parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public ComparisonMetrics metrics() {
+        return metrics;
+    }
+
+    public Duration eventDurationThreshold() {
+        return eventDurationThreshold;
+    }
+
+    public long eventNodeThreshold() {
+        return eventNodeThreshold;
+    }
+
+    /**
+     * Whether comparisons with these and the other options consider the same items equal and give them the same
+     * fingerprints, so that what a {@link FixtureCache} derived with one can be used with the other.
+     */
+    boolean groupsItemsLike(ComparisonOptions other) {
+        return unorderedCollections == other.unorderedCollections && comparators == other.comparators
+                && inaccessibleTypes == other.inaccessibleTypes;
+    }
+
+    public boolean unorderedCollections() {
+        return unorderedCollections;
+    }
+
+    public FixtureCache fixtureCache() {
+        return fixtureCache;
+    }
+
+    public ComparatorRegistry comparators() {
+        return comparators;
+    }
+
+    public InaccessibleTypePolicy inaccessibleTypes() {
+        return inaccessibleTypes;
+    }
+}
@@ -0,0 +1,256 @@
+package utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.BaseStream;
+
+/**
+ * Describes once per class how {@link CustomAssert} compares instances of that class: which kind of value the class
+ * represents and which fields have to be visited. Plans are computed lazily and cached for the lifetime of the class.
+ */
+final class ComparisonPlan {
+
+    private static final ClassValue<ComparisonPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ComparisonPlan computeValue(Class<?> type) {
+            return new ComparisonPlan(type);
+        }
+    };
+
+    enum Kind {
+        /** Primitives, their wrappers, enums and strings, compared with {@code equals}. */
+        VALUE,
+        ARRAY,
+        LIST,
+        /** Any other {@link Iterable}, compared as a set of items. */
+        ITERABLE,
+        /** A {@link Map}, compared entry by entry with the entries matched by key. */
+        MAP,
+        /** An {@link Iterator} or a stream, consumed once and compared item by item like a list. */
+        ITERATOR,
+        /** Anything else, compared field by field. */
+        OBJECT
+    }
+
+    private final Kind kind;
+    private final Property[] properties;
+    private final boolean consistentHashCode;
+    private final boolean overridesEquals;
+    private final boolean leaf;
+    private final boolean accessible;
+
+    private ComparisonPlan(Class<?> type) {
+        this.kind = kindOf(type);
+        var accessors = kind == Kind.OBJECT ? generatedProperties(type) : null;
+        if (accessors == null && kind == Kind.OBJECT && type.isRecord()) {
+            accessors = collectComponents(type);
+        }
+        // Generated comparators and the public accessors of records can read the properties even if their package is
+        // not open
+        this.accessible = accessors != null || isOpen(type);
+        if (accessors != null) {
+            this.properties = accessors;
+        } else if (kind == Kind.MAP || kind == Kind.ITERATOR) {
+            // Maps are only compared by their entries, since the layout of their internals depends on their history,
+            // and iterators and streams only by their items, since their state changes while they are consumed
+            this.properties = new Property[0];
+        } else {
+            this.properties = collectProperties(type);
+        }
+        this.consistentHashCode = hasConsistentHashCode(type);
+        this.overridesEquals = overridesEquals(type);
+        this.leaf = isLeaf(type, kind, properties);
+    }
+
+    static ComparisonPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    Property[] properties() {
+        return properties;
+    }
+
+    /**
+     * Whether instances can be looked up in hash based collections, i.e. the class does not override {@code equals}
+     * without also overriding {@code hashCode}.
+     */
+    boolean hasConsistentHashCode() {
+        return consistentHashCode;
+    }
+
+    /**
+     * Whether the class or one of its superclasses overrides {@code equals}, so that instances are not only equal to
+     * themselves.
+     */
+    boolean overridesEquals() {
+        return overridesEquals;
+    }
+
+    /**
+     * Whether the fields declared by the class can be read, i.e. its package is open to this library or it is a record
+     * with accessible component accessors. The fields of classes in modules that do not open their packages, such as
+     * most classes of the JDK, cannot be compared.
+     */
+    boolean isAccessible() {
+        return accessible;
+    }
+
+    /**
+     * Whether instances cannot reference other objects that are compared structurally, so that they can neither be
+     * part of a cycle nor contain shared substructures.
+     */
+    boolean isLeaf() {
+        return leaf;
+    }
+
+    static Kind kindOf(Class<?> type) {
+        if (isPrimitiveOrPrimitiveWrapper(type)) {
+            return Kind.VALUE;
+        }
+        if (type.isArray()) {
+            return Kind.ARRAY;
+        }
+        if (List.class.isAssignableFrom(type)) {
+            return Kind.LIST;
+        }
+        if (Iterable.class.isAssignableFrom(type)) {
+            return Kind.ITERABLE;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return Kind.MAP;
+        }
+        if (Iterator.class.isAssignableFrom(type) || BaseStream.class.isAssignableFrom(type)) {
+            return Kind.ITERATOR;
+        }
+        return Kind.OBJECT;
+    }
+
+    private static boolean isPrimitiveOrPrimitiveWrapper(Class<?> field) {
+        return field.isPrimitive() || field.isEnum() || field.equals(String.class) || field == Double.class
+                || field == Float.class || field == Long.class || field == Integer.class || field == Short.class
+                || field == Character.class || field == Byte.class || field == Boolean.class;
+    }
+
+    private static boolean isLeaf(Class<?> type, Kind kind, Property[] properties) {
+        if (kind == Kind.ARRAY) {
+            return kindOf(type.getComponentType()) == Kind.VALUE;
+        }
+        if (kind != Kind.OBJECT && kind != Kind.VALUE) {
+            return false;
+        }
+        for (var property : properties) {
+            if (property.kind() != Kind.VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOpen(Class<?> type) {
+        if (type.isArray() || type.isPrimitive()) {
+            return true;
+        }
+        return type.getModule().isOpen(type.getPackageName(), ComparisonPlan.class.getModule());
+    }
+
+    private static boolean hasConsistentHashCode(Class<?> type) {
+        if (type.isPrimitive() || type.isInterface() || type.isArray()) {
+            return true;
+        }
+        try {
+            final var equalsDeclaredByObject = type.getMethod("equals", Object.class).getDeclaringClass()
+                    == Object.class;
+            final var hashCodeDeclaredByObject = type.getMethod("hashCode").getDeclaringClass() == Object.class;
+            return equalsDeclaredByObject || !hashCodeDeclaredByObject;
+        } catch (NoSuchMethodException e) {
+            // Every class inherits both methods from Object
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean overridesEquals(Class<?> type) {
+        if (type.isPrimitive() || type.isInterface() || type.isArray()) {
+            return false;
+        }
+        try {
+            return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+        } catch (NoSuchMethodException e) {
+            // Every class inherits equals from Object
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the properties read by the {@link DeepComparator} generated for a {@link DeepComparable} type, or
+     * {@code null} if the type is not annotated or its comparator was not generated.
+     */
+    private static Property[] generatedProperties(Class<?> type) {
+        if (!type.isAnnotationPresent(DeepComparable.class)) {
+            return null;
+        }
+        final Object comparator;
+        try {
+            comparator = Class.forName(generatedComparatorName(type), true, type.getClassLoader())
+                    .getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            // The annotation processor did not run, so the type is compared through reflection
+            return null;
+        }
+        return comparator instanceof DeepComparator<?> generated ? Property.forGenerated(generated) : null;
+    }
+
+    private static String generatedComparatorName(Class<?> type) {
+        var name = type.getSimpleName() + "_DeepComparator";
+        for (var enclosing = type.getEnclosingClass(); enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            name = enclosing.getSimpleName() + "_" + name;
+        }
+        return type.getPackageName().isEmpty() ? name : type.getPackageName() + "." + name;
+    }
+
+    /**
+     * Returns the components of a record in declaration order, or {@code null} if any of their accessors cannot be
+     * made accessible, in which case the record is treated like any other class.
+     */
+    private static Property[] collectComponents(Class<?> type) {
+        final var components = type.getRecordComponents();
+        final var properties = new Property[components.length];
+        for (int i = 0; i < components.length; i++) {
+            if (!components[i].getAccessor().trySetAccessible()) {
+                return null;
+            }
+            properties[i] = Property.forComponent(components[i]);
+        }
+        return properties;
+    }
+
+    private static Property[] collectProperties(Class<?> type) {
+        // Walk up the hierarchy first so that inherited fields are reported before the fields declared by subclasses
+        final var hierarchy = new ArrayList<Class<?>>();
+        for (var current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        final var properties = new ArrayList<Property>();
+        for (var declaringClass : hierarchy) {
+            // Fields of classes in packages that are not open to us cannot be read and are not compared. This is
+            // decided once per class rather than by failing to make every single field accessible.
+            if (!isOpen(declaringClass)) {
+                continue;
+            }
+            for (var field : declaringClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || !field.trySetAccessible()) {
+                    continue;
+                }
+                properties.add(Property.forField(field));
+            }
+        }
+        return properties.toArray(new Property[0]);
+    }
+}
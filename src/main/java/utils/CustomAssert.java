@@ -1,15 +1,21 @@
 package utils;
 
-import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
-@SuppressWarnings("rawtypes") // We ignore this warning since we want raw types and cannot infer types
 public class CustomAssert {
 
     public static void assertObjectsEqual(Object expected, Object actual) {
+        assertObjectsEqual(expected, actual, ComparisonOptions.defaults());
+    }
+
+    /**
+     * Asserts that two objects are deeply equal, comparing them with the given options. See
+     * {@link ComparisonOptions} for the available settings.
+     */
+    public static void assertObjectsEqual(Object expected, Object actual, ComparisonOptions options) {
         if (expected == null && actual == null) {
             return;
         }
@@ -20,265 +26,76 @@ public class CustomAssert {
             fail("Expected element was not null but actual element was null.");
         }
 
-        if (expected.getClass() != actual.getClass()) {
+        if (!Comparison.haveSameType(expected, actual)) {
             fail("Expected element to be of type '" + expected.getClass().getName() + "' but was of type '"
                     + actual.getClass().getName() + "'.");
         }
 
-        final var messageBuilder = new StringBuilder();
-        // Only fail if the message is not empty
-        if (generateErrorsFromComparison(expected, actual, messageBuilder, "")) {
-            var message = messageBuilder.toString();
-            message = message.substring(0, message.length() - System.getProperty("line.separator").length());
+        final var message = Comparison.describeDifferences(expected, actual, options);
+        if (message != null) {
             fail(message);
         }
     }
 
-    private static boolean generateErrorsFromComparison(Object expected, Object actual, StringBuilder messageBuilder,
-            String currentScope) {
-        var foundError = false;
-        if (findErrorsCollections(expected, actual, messageBuilder, currentScope)) {
-            foundError = true;
+    /**
+     * Checks whether two objects are deeply equal by the same rules as {@link #assertObjectsEqual(Object, Object)},
+     * but returns at the first difference without describing it. Use {@code assertObjectsEqual} to get the full list
+     * of differences, e.g. once this method returned {@code false}.
+     */
+    public static boolean deepEquals(Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
         }
-        final var fields = expected.getClass().getDeclaredFields();
-        for (var field : fields) {
-            try {
-                field.setAccessible(true);
-                final var expectedPropertyValue = field.get(expected);
-                final var actualPropertyValue = field.get(actual);
-
-                // Skip null properties
-                if (expectedPropertyValue == null && actualPropertyValue == null) {
-                    continue;
-                }
-
-                if (findErrorsNullChecks(expectedPropertyValue, actualPropertyValue, messageBuilder,
-                        currentScope + "." + field.getName())) {
-                    foundError = true;
-                    continue;
-                }
-
-                if(findErrorsOfTypes(expectedPropertyValue, actualPropertyValue, messageBuilder,
-                        currentScope + "." + field.getName())) {
-                    foundError = true;
-                    continue;
-                }
-
-                if (isPrimitiveOrPrimitiveWrapper(field) || isPrimitiveOrPrimitiveWrapper(expectedPropertyValue.getClass()) || isPrimitiveOrPrimitiveWrapper(actualPropertyValue.getClass())) {
-                    if (findErrorsValueComparison(expectedPropertyValue, actualPropertyValue, messageBuilder,
-                            currentScope + "." + field.getName())) {
-                        foundError = true;
-                    }
-                } else {
-                    if (generateErrorsFromComparison(expectedPropertyValue, actualPropertyValue, messageBuilder,
-                            currentScope + "." + field.getName())) {
-                        foundError = true;
-                    }
-                }
-            } catch (Exception ignored) {
-            }
+        if (!Comparison.haveSameType(expected, actual)) {
+            return false;
         }
-
-        return foundError;
+        return !Comparison.hasDifferences(expected, actual);
     }
 
-    private static boolean findErrorsNullChecks(Object expectedPropertyValue, Object actualPropertyValue,
-            StringBuilder messageBuilder, String currentScope) {
-        if (expectedPropertyValue == null && actualPropertyValue != null) {
-            messageBuilder.append("Expected '").append(currentScope).append("' to be null but was not null.")
-                    .append(System.getProperty("line.separator"));
-            return true;
-        }
-        if (expectedPropertyValue != null && actualPropertyValue == null) {
-            messageBuilder.append("Expected '").append(currentScope).append("' to be not null but was null.")
-                    .append(System.getProperty("line.separator"));
-            return true;
-        }
-        return false;
+    /**
+     * Returns a hash code of the structure of an object that is consistent with {@link #deepEquals(Object, Object)}:
+     * objects that are deeply equal have the same hash code, even if their classes do not override {@code hashCode}.
+     * Objects with different hash codes are therefore known to differ without comparing them. Objects that reach a
+     * cycle or nest objects beyond a fixed depth only contribute their own values, the items of sorted sets and the
+     * keys of sorted maps do not contribute, and iterators and streams are not consumed.
+     */
+    public static int deepHashCode(Object value) {
+        return Fingerprint.of(value, ComparisonOptions.defaults());
     }
 
-    private static boolean findErrorsCollections(Object expectedPropertyValue, Object actualPropertyValue,
-            StringBuilder messageBuilder, String currentScope) {
-        var foundError = false;
-        if (!isCollection(expectedPropertyValue) && !isCollection(actualPropertyValue)) {
-            return false;
-        }
-        if (expectedPropertyValue.getClass().isArray()) {
-            final var expectedLength = Array.getLength(expectedPropertyValue);
-            final var actualLength = Array.getLength(actualPropertyValue);
-            final var isPrimitiveArray = isPrimitiveOrPrimitiveWrapper(
-                    expectedPropertyValue.getClass().getComponentType());
-            if (expectedLength != actualLength) {
-                messageBuilder.append("Expected '").append(currentScope).append("' to be of length ")
-                        .append(expectedLength).append(" but was of length ").append(actualLength).append(".")
-                        .append(System.getProperty("line.separator"));
-                return true;
-            }
-            for (int i = 0; i < expectedLength; i++) {
-                final var expectedPropertyValueAtIndex = Array.get(expectedPropertyValue, i);
-                final var actualPropertyValueAtIndex = Array.get(actualPropertyValue, i);
-                if (findErrorsNullChecks(expectedPropertyValueAtIndex, actualPropertyValueAtIndex, messageBuilder,
-                        currentScope + "[" + i + "]")) {
-                    foundError = true;
-                    continue;
-                }
-                if (isPrimitiveArray) {
-                    if (findErrorsValueComparison(expectedPropertyValueAtIndex, actualPropertyValueAtIndex,
-                            messageBuilder, currentScope + "[" + i + "]")) {
-                        foundError = true;
-                    }
-                } else {
-                    if (generateErrorsFromComparison(expectedPropertyValueAtIndex, actualPropertyValueAtIndex,
-                            messageBuilder, currentScope + "[" + i + "]")) {
-                        foundError = true;
-                    }
-                }
-            }
-        }
-        if (expectedPropertyValue instanceof final List expectedPropertyValueAsList) {
-            final var actualPropertyValueAsList = (List) actualPropertyValue;
-            if (expectedPropertyValueAsList.size() != actualPropertyValueAsList.size()) {
-                messageBuilder.append("Expected '").append(currentScope).append("' to be of size ")
-                        .append(expectedPropertyValueAsList.size()).append(" but was of size ")
-                        .append(actualPropertyValueAsList.size()).append(".")
-                        .append(System.getProperty("line.separator"));
-                return true;
-            }
-            // Compare index by index
-            if (expectedPropertyValueAsList.size() > 0) {
-                final var isPrimitiveList = isPrimitiveOrPrimitiveWrapper(
-                        expectedPropertyValueAsList.get(0).getClass());
-
-                for (int i = 0; i < expectedPropertyValueAsList.size(); i++) {
-                    final var expectedPropertyValueAtIndex = expectedPropertyValueAsList.toArray()[i];
-                    final var actualPropertyValueAtIndex = actualPropertyValueAsList.toArray()[i];
-                    if (findErrorsNullChecks(expectedPropertyValueAtIndex, actualPropertyValueAtIndex, messageBuilder,
-                            currentScope + "[" + i + "]")) {
-                        foundError = true;
-                        continue;
-                    }
-                    if (isPrimitiveList) {
-                        if (findErrorsValueComparison(expectedPropertyValueAtIndex, actualPropertyValueAtIndex,
-                                messageBuilder, currentScope + "[" + i + "]")) {
-                            foundError = true;
-                        }
-                    } else {
-                        if (generateErrorsFromComparison(expectedPropertyValueAtIndex, actualPropertyValueAtIndex,
-                                messageBuilder, currentScope + "[" + i + "]")) {
-                            foundError = true;
-                        }
-                    }
-                }
-            }
-        } else if (expectedPropertyValue instanceof final Iterable expectedPropertyValueAsIterable) {
-            final var actualPropertyValueAsIterable = (Iterable) actualPropertyValue;
-
-            var firstSize = 0;
-            var secondSize = 0;
-            for (final Object ignored : expectedPropertyValueAsIterable) {
-                firstSize++;
-            }
-            for (final Object ignored : actualPropertyValueAsIterable) {
-                secondSize++;
-            }
-
-            if (firstSize != secondSize) {
-                messageBuilder.append("Expected '").append(currentScope).append("' to be of size ").append(firstSize)
-                        .append(" but was of size ").append(secondSize).append(".")
-                        .append(System.getProperty("line.separator"));
-                return true;
-            }
-
-            final var symmetricDifference = findSymmetricDifference(expectedPropertyValueAsIterable,
-                    actualPropertyValueAsIterable);
-            if (symmetricDifference.size() > 0) {
-                messageBuilder.append("Expected '").append(currentScope).append("' to contain same items, however ")
-                        .append(symmetricDifference.size()).append(" items were different: ")
-                        .append(symmetricDifference).append(".").append(System.getProperty("line.separator"));
-                foundError = true;
-            }
-        }
-        return foundError;
+    public static void assertMatchesSnapshot(Object actual, Path snapshot) {
+        assertMatchesSnapshot(actual, snapshot, ComparisonOptions.defaults());
     }
 
-    private static boolean findErrorsValueComparison(Object expectedPropertyValue, Object actualPropertyValue,
-            StringBuilder messageBuilder, String currentScope) {
-        // Only compare if primitives, enum or string
-        if (!expectedPropertyValue.equals(actualPropertyValue)) {
-            messageBuilder.append("Expected '").append(currentScope).append("' to be '").append(expectedPropertyValue)
-                    .append("' but was '").append(actualPropertyValue).append("'.")
-                    .append(System.getProperty("line.separator"));
-            return true;
+    /**
+     * Asserts that an object is deeply equal to the object recorded in a snapshot file. If the file does not exist,
+     * the object is recorded into it instead, so the first run of a test records the expected object and later runs
+     * compare with it without building it. Delete the file to record it again.
+     * <p>
+     * Snapshots follow the same rules as {@link #assertObjectsEqual(Object, Object, ComparisonOptions)}, with a few
+     * restrictions: iterators and streams cannot be recorded, objects with a custom comparator have to be serializable
+     * and their recorded form may only contain classes that the actual object is serialized to, the items of sets and
+     * the keys of maps have to be primitives, strings or enums, sorted sets and maps whose comparator is not
+     * serializable are compared like unsorted ones, and the parallel and unordered options are ignored.
+     * Snapshots are mapped into memory while they are compared, so they cannot be larger than 2 GB.
+     */
+    public static void assertMatchesSnapshot(Object actual, Path snapshot, ComparisonOptions options) {
+        final String message;
+        try {
+            if (Files.notExists(snapshot)) {
+                Snapshot.record(actual, snapshot, options);
+                return;
+            }
+            message = Snapshot.describeDifferences(snapshot, actual, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return false;
-    }
-
-    private static boolean findErrorsOfTypes(Object expectedPropertyValue, Object actualPropertyValue,
-            StringBuilder messageBuilder, String currentScope) {
-        if (expectedPropertyValue.getClass() != actualPropertyValue.getClass()) {
-            messageBuilder.append("Expected '").append(currentScope).append("' to be of type '")
-            .append(expectedPropertyValue.getClass().getName()).append("' but was of type '")
-            .append(actualPropertyValue.getClass().getName()).append("'.")
-            .append(System.getProperty("line.separator"));
-            return true;
+        if (message != null) {
+            fail(message);
         }
-        return false;
     }
 
     private static void fail(String message) {
         throw new AssertionError(message);
     }
-
-    private static boolean isPrimitiveOrPrimitiveWrapper(Field field) {
-        return isPrimitiveOrPrimitiveWrapper(field.getType());
-    }
-
-    private static boolean isPrimitiveOrPrimitiveWrapper(Class<?> field) {
-        return field.isPrimitive() || field.isEnum() || field.equals(String.class) || field == Double.class
-                || field == Float.class || field == Long.class || field == Integer.class || field == Short.class
-                || field == Character.class || field == Byte.class || field == Boolean.class;
-    }
-
-    private static boolean isCollection(Object object) {
-        if (object.getClass().isArray()) {
-            return true;
-        }
-        if (object instanceof List) {
-            return true;
-        }
-        if (object instanceof Iterable) {
-            return true;
-        }
-        return false;
-    }
-
-    @SuppressWarnings("DuplicatedCode")
-    private static Set<Object> findSymmetricDifference(Iterable firstIterable, Iterable secondIterable) {
-        var symmetricDifference = new HashSet<>();
-        for (var firstIterableItem : firstIterable) {
-            var found = false;
-            for (var secondIterableItem : secondIterable) {
-                if (firstIterableItem.equals(secondIterableItem)) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                symmetricDifference.add(firstIterableItem);
-            }
-        }
-        for (var secondIterableItem : secondIterable) {
-            var found = false;
-            for (var firstIterableItem : firstIterable) {
-                if (firstIterableItem.equals(secondIterableItem)) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                symmetricDifference.add(secondIterableItem);
-            }
-        }
-        return symmetricDifference;
-    }
 }
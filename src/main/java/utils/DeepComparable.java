@@ -0,0 +1,23 @@
+package utils;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class or record for which the annotation processor in {@code processor/} generates a
+ * {@link DeepComparator} at compile time. The generated class is named after the annotated type with the suffix
+ * {@code _DeepComparator}, with the names of enclosing classes joined by underscores, e.g.
+ * {@code Order_Line_DeepComparator} for {@code Order.Line}, and is placed in the same package.
+ * <p>
+ * {@link CustomAssert} reads the fields of annotated types through their generated comparator instead of through
+ * reflection. If the generated class cannot be found, e.g. because the processor did not run, the type is compared
+ * through reflection like any other type.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DeepComparable {
+}
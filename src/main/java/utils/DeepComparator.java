@@ -0,0 +1,39 @@
+package utils;
+
+/**
+ * Reads the properties of a {@link DeepComparable} type without reflection. Implementations are generated by the
+ * annotation processor in {@code processor/} and are not meant to be written by hand.
+ * <p>
+ * Properties are addressed by their index in {@link #propertyNames()}. They are the fields of the type, inherited
+ * fields first, or the components of a record, and are compared by the same rules as fields that are read through
+ * reflection. Fields that the generated class cannot access are read through their getter {@code getX}, or
+ * {@code isX} for booleans, so a getter that does not return its field changes what is compared.
+ */
+public interface DeepComparator<T> {
+
+    /**
+     * Returns the names of the properties, which name them in the messages of differences.
+     */
+    String[] propertyNames();
+
+    /**
+     * Returns the declared types of the properties, in the same order as their names.
+     */
+    Class<?>[] propertyTypes();
+
+    /**
+     * Returns the value of a property, boxed if it is primitive.
+     */
+    Object get(T target, int property);
+
+    /**
+     * Compares a property of primitive type of both objects with the semantics of the wrapper's {@code equals},
+     * without boxing.
+     */
+    boolean primitiveEquals(T expected, T actual, int property);
+
+    /**
+     * Returns the hash code of a property of primitive type, which is the hash code of the wrapper, without boxing.
+     */
+    int primitiveHashCode(T target, int property);
+}
@@ -0,0 +1,329 @@
+package utils;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Hash of the structure of an object graph that is consistent with the comparison: objects without differences have
+ * the same fingerprint, whether or not their classes override {@code hashCode}. Different fingerprints therefore
+ * prove a difference, while equal fingerprints still have to be confirmed by a comparison.
+ * <p>
+ * Objects that reach a cycle or objects nested deeper than a fixed depth are only hashed by their own values and
+ * sizes, since the comparison considers a cycle equal to any unrolled form of it, e.g. a node referencing itself equal
+ * to two nodes referencing each other. Sorted sets and the keys of sorted maps are matched by their comparators, which
+ * need not be consistent with {@code hashCode}, so they are not hashed by their items.
+ * <p>
+ * An instance remembers the fingerprints of the objects with substructures it has hashed, so that shared
+ * substructures are only hashed once, also across several calls of {@link #hash(Object)}. Instances must therefore
+ * only be used while the hashed objects do not change, e.g. for the duration of a single comparison.
+ */
+final class Fingerprint {
+
+    /**
+     * Objects nested deeper than this do not contribute to the fingerprint, which keeps the recursion bounded.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    // Stand-ins for values that cannot be hashed consistently with the comparison
+    private static final int TOO_DEEP = 1;
+    private static final int CYCLE = 2;
+    private static final int UNHASHABLE = 3;
+    private static final int COMPARED_BY_COMPARATOR = 4;
+
+    private final boolean unordered;
+    private final ComparatorRegistry comparators;
+    private final InaccessibleTypePolicy inaccessibleTypes;
+    private IdentityHashMap<Object, Boolean> inProgress;
+    /**
+     * The fingerprints of hashed objects, each with the depth of its deepest hashed object relative to it in the upper
+     * half, so that a cached fingerprint is only used where the hashing would not have been truncated.
+     */
+    private IdentityHashMap<Object, Long> cache;
+    /**
+     * How often a stand-in for a cycle or for too deep nesting was used. Objects whose hashing used one are only
+     * hashed by their own values.
+     */
+    private int truncations;
+    private int cycles;
+    /** The depth of the deepest object hashed so far. */
+    private int deepest;
+
+    /**
+     * Creates a fingerprint that is consistent with comparisons with the given options: the order of the items of
+     * lists and arrays is ignored with {@link ComparisonOptions#unorderedCollections()}, and objects with a
+     * registered comparator or with inaccessible fields are hashed like they are compared.
+     */
+    Fingerprint(ComparisonOptions options) {
+        this.unordered = options.unorderedCollections();
+        this.comparators = options.comparators();
+        this.inaccessibleTypes = options.inaccessibleTypes();
+    }
+
+    /**
+     * Computes the fingerprint of a single value for comparisons with the given options.
+     */
+    static int of(Object value, ComparisonOptions options) {
+        return new Fingerprint(options).hash(value);
+    }
+
+    int hash(Object value) {
+        return hash(value, 0);
+    }
+
+    private int hash(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        final var plan = ComparisonPlan.of(value.getClass());
+        if (plan.kind() == ComparisonPlan.Kind.VALUE) {
+            return value.hashCode();
+        }
+        final var comparator = comparators.entryFor(value.getClass());
+        if (comparator != null) {
+            // Only equals is known to be consistent with hashCode
+            return comparator.usesEquals() ? value.hashCode() : COMPARED_BY_COMPARATOR;
+        }
+        if (plan.kind() == ComparisonPlan.Kind.OBJECT && !plan.isAccessible()) {
+            return inaccessibleTypes.appliedTo(plan) == InaccessibleTypePolicy.EQUALS && plan.hasConsistentHashCode()
+                    ? value.hashCode() : UNHASHABLE;
+        }
+        deepest = Math.max(deepest, depth);
+        if (depth == MAX_DEPTH) {
+            truncations++;
+            return TOO_DEEP;
+        }
+        if (plan.isLeaf()) {
+            return hashStructure(value, plan, depth);
+        }
+        if (cache != null) {
+            final var cached = cache.get(value);
+            if (cached != null) {
+                final var height = (int) (cached >>> 32);
+                deepest = Math.max(deepest, depth + height);
+                if (depth + height >= MAX_DEPTH) {
+                    truncations++;
+                }
+                return (int) (long) cached;
+            }
+        } else {
+            cache = new IdentityHashMap<>();
+            inProgress = new IdentityHashMap<>();
+        }
+        if (inProgress.put(value, Boolean.TRUE) != null) {
+            truncations++;
+            cycles++;
+            return CYCLE;
+        }
+        final var truncationsBefore = truncations;
+        final var cyclesBefore = cycles;
+        final var deepestBefore = deepest;
+        deepest = depth;
+        int hash;
+        try {
+            hash = hashStructure(value, plan, depth);
+        } finally {
+            inProgress.remove(value);
+        }
+        var height = deepest - depth;
+        deepest = Math.max(deepestBefore, deepest);
+        if (truncations != truncationsBefore) {
+            // The structure below a cycle or beyond the maximum depth depends on where the hashing started
+            hash = hashShallow(value, plan);
+            if (cycles == cyclesBefore) {
+                // Without a cycle, the hashing would not have been truncated if it had started deeper down
+                return hash;
+            }
+            // An object that reaches a cycle is truncated wherever its hashing starts
+            height = MAX_DEPTH;
+        }
+        cache.put(value, (long) height << 32 | (hash & 0xFFFFFFFFL));
+        return hash;
+    }
+
+    /**
+     * Hashes only the values of an object and the sizes of arrays and collections, which are equal for all objects
+     * without differences regardless of what they reference.
+     */
+    private static int hashShallow(Object value, ComparisonPlan plan) {
+        return switch (plan.kind()) {
+            case ARRAY -> Array.getLength(value);
+            case LIST, MAP -> value instanceof final Map<?, ?> map ? map.size() : ((Collection<?>) value).size();
+            case ITERABLE -> value instanceof final Collection<?> collection ? collection.size() : 0;
+            case ITERATOR -> UNHASHABLE;
+            default -> {
+                var hash = 1;
+                for (var property : plan.properties()) {
+                    var propertyHash = 0;
+                    try {
+                        if (property.isPrimitive()) {
+                            propertyHash = property.hashValue(value);
+                        } else if (property.kind() == ComparisonPlan.Kind.VALUE) {
+                            propertyHash = Objects.hashCode(property.get(value));
+                        }
+                    } catch (Error error) {
+                        throw error;
+                    } catch (Throwable throwable) {
+                        propertyHash = UNHASHABLE;
+                    }
+                    hash = 31 * hash + propertyHash;
+                }
+                yield hash;
+            }
+        };
+    }
+
+    private int hashStructure(Object value, ComparisonPlan plan, int depth) {
+        return switch (plan.kind()) {
+            case ARRAY -> hashArray(value, depth + 1);
+            case LIST -> hashItems(((Iterable<?>) value).iterator(), depth + 1);
+            // Iterators and streams would be consumed
+            case ITERATOR -> UNHASHABLE;
+            case ITERABLE -> hashSet((Iterable<?>) value);
+            case MAP -> hashMap((Map<?, ?>) value, depth + 1);
+            default -> hashObject(value, plan, depth + 1);
+        };
+    }
+
+    private int hashArray(Object array, int depth) {
+        if (array.getClass().getComponentType().isPrimitive()) {
+            return hashPrimitiveArray(array);
+        }
+        var hash = 1;
+        for (var item : (Object[]) array) {
+            hash = combine(hash, hash(item, depth));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the items of a primitive array like their wrappers would, without boxing them.
+     */
+    private int hashPrimitiveArray(Object array) {
+        if (!unordered) {
+            // Same as combining the hash codes of the wrappers in order
+            if (array instanceof final int[] items) {
+                return Arrays.hashCode(items);
+            } else if (array instanceof final long[] items) {
+                return Arrays.hashCode(items);
+            } else if (array instanceof final double[] items) {
+                return Arrays.hashCode(items);
+            } else if (array instanceof final float[] items) {
+                return Arrays.hashCode(items);
+            } else if (array instanceof final boolean[] items) {
+                return Arrays.hashCode(items);
+            } else if (array instanceof final char[] items) {
+                return Arrays.hashCode(items);
+            } else if (array instanceof final short[] items) {
+                return Arrays.hashCode(items);
+            }
+            return Arrays.hashCode((byte[]) array);
+        }
+        var hash = 1;
+        if (array instanceof final int[] items) {
+            for (var item : items) {
+                hash += Integer.hashCode(item);
+            }
+        } else if (array instanceof final long[] items) {
+            for (var item : items) {
+                hash += Long.hashCode(item);
+            }
+        } else if (array instanceof final double[] items) {
+            for (var item : items) {
+                hash += Double.hashCode(item);
+            }
+        } else if (array instanceof final float[] items) {
+            for (var item : items) {
+                hash += Float.hashCode(item);
+            }
+        } else if (array instanceof final boolean[] items) {
+            for (var item : items) {
+                hash += Boolean.hashCode(item);
+            }
+        } else if (array instanceof final char[] items) {
+            for (var item : items) {
+                hash += Character.hashCode(item);
+            }
+        } else if (array instanceof final short[] items) {
+            for (var item : items) {
+                hash += Short.hashCode(item);
+            }
+        } else {
+            for (var item : (byte[]) array) {
+                hash += Byte.hashCode(item);
+            }
+        }
+        return hash;
+    }
+
+    private int hashItems(Iterator<?> items, int depth) {
+        var hash = 1;
+        while (items.hasNext()) {
+            hash = combine(hash, hash(items.next(), depth));
+        }
+        return hash;
+    }
+
+    /**
+     * Iterables are compared as sets by the {@code equals} of their items, so their fingerprint is the sum of the
+     * hash codes of their distinct items, leaving out items whose hash codes are not consistent with {@code equals}.
+     */
+    private static int hashSet(Iterable<?> items) {
+        if (items instanceof final SortedSet<?> sortedSet) {
+            // Items are matched by the comparator, e.g. case insensitively
+            return sortedSet.size();
+        }
+        // Only iterables that are no sets can contain an item twice
+        final Set<Object> seen = items instanceof Set ? null : new HashSet<>();
+        var hash = 0;
+        for (var item : items) {
+            if (item != null && ComparisonPlan.of(item.getClass()).hasConsistentHashCode()
+                    && (seen == null || seen.add(item))) {
+                hash += item.hashCode();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Map entries are matched by the keys of the map, so keys contribute their hash codes and values their
+     * fingerprints. The keys of sorted maps are matched by the comparator, so only their values contribute.
+     */
+    private int hashMap(Map<?, ?> map, int depth) {
+        final var sorted = map instanceof SortedMap;
+        var hash = 0;
+        for (var entry : map.entrySet()) {
+            hash += (sorted ? 0 : Objects.hashCode(entry.getKey())) ^ hash(entry.getValue(), depth);
+        }
+        return hash;
+    }
+
+    private int hashObject(Object object, ComparisonPlan plan, int depth) {
+        var hash = 1;
+        for (var property : plan.properties()) {
+            try {
+                final var propertyHash = property.isPrimitive() ? property.hashValue(object)
+                        : hash(property.get(object), depth);
+                hash = 31 * hash + propertyHash;
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable throwable) {
+                // Fields that cannot be read are reported by the comparison
+                hash = 31 * hash + UNHASHABLE;
+            }
+        }
+        return hash;
+    }
+
+    private int combine(int hash, int itemHash) {
+        return unordered ? hash + itemHash : 31 * hash + itemHash;
+    }
+}
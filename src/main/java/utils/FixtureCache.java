@@ -0,0 +1,137 @@
+package utils;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps what comparisons derive from the collections of their expected objects, so that repeated assertions against
+ * the same expected fixtures only pay for the actual objects: the hash indices of the items of sets, the items of
+ * iterables that are no collections, and the groups of equal items of collections that are compared regardless of
+ * order, together with their fingerprints. See {@link ComparisonOptions#withFixtureCache(FixtureCache)}.
+ * <p>
+ * Entries are keyed by the identity of the expected collections and do not keep these reachable, so fixtures can
+ * still be garbage collected. Beyond the maximum size, the least recently used entries are dropped. A cache can be
+ * shared by assertions on several threads.
+ */
+public final class FixtureCache {
+
+    /**
+     * The number of expected collections a cache keeps entries for unless configured otherwise.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final Map<Key, Fixture> fixtures;
+
+    public FixtureCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public FixtureCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size has to be positive, but was " + maximumSize + ".");
+        }
+        this.fixtures = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Fixture> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * The number of expected collections that entries are kept for.
+     */
+    public synchronized int size() {
+        expungeCollected();
+        return fixtures.size();
+    }
+
+    public synchronized void clear() {
+        fixtures.clear();
+        while (collected.poll() != null) {
+            // Drop the keys of collected fixtures, whose entries are already gone
+        }
+    }
+
+    /**
+     * Returns the entry for an expected collection, creating an empty one if there is none.
+     */
+    synchronized Fixture get(Object expected) {
+        expungeCollected();
+        var fixture = fixtures.get(new Key(expected, null));
+        if (fixture == null) {
+            fixture = new Fixture();
+            fixtures.put(new Key(expected, collected), fixture);
+        }
+        return fixture;
+    }
+
+    private void expungeCollected() {
+        for (var key = collected.poll(); key != null; key = collected.poll()) {
+            fixtures.remove(key);
+        }
+    }
+
+    /**
+     * What has been derived from a single expected collection. Values are computed by the first comparison that
+     * needs them; comparisons on several threads may compute them more than once. Values that depend on how items are
+     * grouped are kept with the options they were derived with, and are derived again for comparisons whose options
+     * group items differently.
+     */
+    static final class Fixture {
+        /** Stands in for the index of items that cannot be hashed. */
+        static final Set<Object> UNINDEXABLE = Set.of();
+
+        volatile List<Object> items;
+        volatile Set<Object> index;
+        volatile Derived<Map<Integer, List<Object>>> buckets;
+        volatile Derived<ItemCounts> counts;
+
+        private Fixture() {
+        }
+
+        /**
+         * Returns the derived value if it can be used with the given options, otherwise {@code null}.
+         */
+        static <T> T valueFor(Derived<T> derived, ComparisonOptions options) {
+            return derived != null && derived.options().groupsItemsLike(options) ? derived.value() : null;
+        }
+    }
+
+    record Derived<T>(ComparisonOptions options, T value) {
+    }
+
+    /**
+     * Weak reference to an expected collection that is equal to references to the same collection.
+     */
+    private static final class Key extends WeakReference<Object> {
+        private final int hash;
+
+        private Key(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof final Key key)) {
+                return false;
+            }
+            final var referent = get();
+            return referent != null && referent == key.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
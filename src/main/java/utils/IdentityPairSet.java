@@ -0,0 +1,60 @@
+package utils;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Set of (expected, actual) pairs compared by identity. Most expected objects are only ever paired with a single
+ * actual object, so the pairs are stored as a map from expected to actual objects that only switches to a set of
+ * actual objects for the rare expected object with several partners.
+ */
+final class IdentityPairSet {
+
+    private final IdentityHashMap<Object, Object> pairs = new IdentityHashMap<>();
+
+    /**
+     * Adds the pair and returns whether it was not contained yet.
+     */
+    boolean add(Object expected, Object actual) {
+        final var partner = pairs.putIfAbsent(expected, actual);
+        if (partner == null) {
+            return true;
+        }
+        if (partner == actual) {
+            return false;
+        }
+        if (partner instanceof final Partners partners) {
+            return partners.actuals.add(actual);
+        }
+        final var partners = new Partners();
+        partners.actuals.add(partner);
+        partners.actuals.add(actual);
+        pairs.put(expected, partners);
+        return true;
+    }
+
+    boolean contains(Object expected, Object actual) {
+        final var partner = pairs.get(expected);
+        if (partner instanceof final Partners partners) {
+            return partners.actuals.contains(actual);
+        }
+        return partner == actual && partner != null;
+    }
+
+    int size() {
+        return pairs.size();
+    }
+
+    /**
+     * Removes all pairs, keeping the allocated capacity for reuse.
+     */
+    IdentityPairSet clear() {
+        pairs.clear();
+        return this;
+    }
+
+    private static final class Partners {
+        private final Set<Object> actuals = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -0,0 +1,32 @@
+package utils;
+
+/**
+ * How objects are compared whose class is in a package that is not open to this library, so that their fields
+ * cannot be read, e.g. most classes of the JDK. Types with a comparator in the {@link ComparatorRegistry} and
+ * collections, which are compared by their items, are not affected.
+ */
+public enum InaccessibleTypePolicy {
+
+    /**
+     * Compares the objects with their {@code equals}. Objects of classes that do not override it are skipped, since
+     * comparing their identity would report any two distinct instances, e.g. two locks or counters.
+     */
+    EQUALS,
+
+    /**
+     * Does not compare the objects, so they never differ.
+     */
+    SKIP,
+
+    /**
+     * Reports the objects as a difference, so that a comparator can be registered for their type.
+     */
+    FAIL;
+
+    /**
+     * Returns how objects with the given plan are actually compared under this policy.
+     */
+    InaccessibleTypePolicy appliedTo(ComparisonPlan plan) {
+        return this == EQUALS && !plan.overridesEquals() ? SKIP : this;
+    }
+}
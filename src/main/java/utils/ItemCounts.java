@@ -0,0 +1,103 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts how often each distinct item occurs in the expected and in the actual items of a collection that is compared
+ * regardless of order. Values are grouped by {@code equals}; all other items by deep comparison, which is only done
+ * for items with the same {@link Fingerprint}, so that counting takes linear time.
+ */
+final class ItemCounts {
+
+    private final ComparisonOptions options;
+    private final Fingerprint fingerprint;
+    private final Map<Integer, List<Group>> groupsByHash = new HashMap<>();
+    private final List<Group> groups = new ArrayList<>();
+    private long expectedCount;
+
+    ItemCounts(ComparisonOptions options) {
+        this.options = options;
+        this.fingerprint = new Fingerprint(options);
+    }
+
+    void addExpected(Object item) {
+        groupOf(item).expectedCount++;
+        expectedCount++;
+    }
+
+    void addActual(Object item) {
+        groupOf(item).actualCount++;
+    }
+
+    /**
+     * The number of expected items that were added.
+     */
+    long expectedCount() {
+        return expectedCount;
+    }
+
+    /**
+     * Returns counts with the same expected items but without any actual items, so that the groups of the expected
+     * items of a fixture only have to be formed once. The actual items are grouped with the given options, which have
+     * to group items like the options of these counts.
+     */
+    ItemCounts copyExpected(ComparisonOptions options) {
+        final var copy = new ItemCounts(options);
+        for (var group : groups) {
+            final var groupCopy = new Group(group.item, group.hash);
+            groupCopy.expectedCount = group.expectedCount;
+            copy.groupsByHash.computeIfAbsent(group.hash, ignored -> new ArrayList<>(1)).add(groupCopy);
+            copy.groups.add(groupCopy);
+        }
+        copy.expectedCount = expectedCount;
+        return copy;
+    }
+
+    /**
+     * The distinct items in the order in which they were first added.
+     */
+    List<Group> groups() {
+        return groups;
+    }
+
+    private Group groupOf(Object item) {
+        final var isValue = item == null || ComparisonPlan.of(item.getClass()).kind() == ComparisonPlan.Kind.VALUE;
+        final var hash = isValue ? (item == null ? 0 : item.hashCode())
+                : fingerprint.hash(item);
+        final var candidates = groupsByHash.computeIfAbsent(hash, ignored -> new ArrayList<>(1));
+        for (var group : candidates) {
+            if (isSameItem(group.item, item, isValue)) {
+                return group;
+            }
+        }
+        final var group = new Group(item, hash);
+        candidates.add(group);
+        groups.add(group);
+        return group;
+    }
+
+    private boolean isSameItem(Object groupItem, Object item, boolean isValue) {
+        if (groupItem == null || item == null) {
+            return groupItem == item;
+        }
+        if (isValue) {
+            return item.equals(groupItem);
+        }
+        return Comparison.haveSameType(groupItem, item) && !Comparison.hasDifferences(groupItem, item, options);
+    }
+
+    static final class Group {
+        final Object item;
+        final int hash;
+        long expectedCount;
+        long actualCount;
+
+        private Group(Object item, int hash) {
+            this.item = item;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.RecordComponent;
+import java.util.Objects;
+
+/**
+ * Ready-to-use accessor for a single field or record component of a {@link ComparisonPlan}. Properties of primitive
+ * type get an accessor that is specialized for that type, so that they are read and compared without boxing. Values
+ * are only boxed through {@link #get(Object)} when they have to be rendered in a message.
+ */
+abstract class Property {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final String name;
+    private final ComparisonPlan.Kind kind;
+
+    private Property(String name, ComparisonPlan.Kind kind) {
+        this.name = name;
+        this.kind = kind;
+    }
+
+    /**
+     * Creates the accessor for a field that has already been made accessible. If no specialized getter can be
+     * created for it, the field is read reflectively instead.
+     */
+    static Property forField(Field field) {
+        final var kind = ComparisonPlan.kindOf(field.getType());
+        final MethodHandle getter;
+        try {
+            getter = LOOKUP.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            return new ReflectiveProperty(field, kind);
+        }
+        return forGetter(field.getName(), field.getType(), kind, getter);
+    }
+
+    /**
+     * Creates the accessor for a record component whose accessor method has already been made accessible. The
+     * component is read through its accessor, like any other user of the record would read it.
+     */
+    static Property forComponent(RecordComponent component) {
+        final MethodHandle getter;
+        try {
+            getter = LOOKUP.unreflect(component.getAccessor());
+        } catch (IllegalAccessException e) {
+            // The accessor has been made accessible before
+            throw new IllegalStateException(e);
+        }
+        return forGetter(component.getName(), component.getType(), ComparisonPlan.kindOf(component.getType()),
+                getter);
+    }
+
+    /**
+     * Creates the accessors for the properties of a type that are read by a generated {@link DeepComparator}.
+     */
+    @SuppressWarnings("unchecked")
+    static Property[] forGenerated(DeepComparator<?> comparator) {
+        final var names = comparator.propertyNames();
+        final var types = comparator.propertyTypes();
+        final var properties = new Property[names.length];
+        for (int i = 0; i < names.length; i++) {
+            properties[i] = new GeneratedProperty(names[i], types[i], (DeepComparator<Object>) comparator, i);
+        }
+        return properties;
+    }
+
+    private static Property forGetter(String name, Class<?> type, ComparisonPlan.Kind kind, MethodHandle getter) {
+        if (type == int.class) {
+            return new IntProperty(name, kind, getter);
+        }
+        if (type == long.class) {
+            return new LongProperty(name, kind, getter);
+        }
+        if (type == double.class) {
+            return new DoubleProperty(name, kind, getter);
+        }
+        if (type == float.class) {
+            return new FloatProperty(name, kind, getter);
+        }
+        if (type == boolean.class) {
+            return new BooleanProperty(name, kind, getter);
+        }
+        if (type == char.class) {
+            return new CharProperty(name, kind, getter);
+        }
+        if (type == short.class) {
+            return new ShortProperty(name, kind, getter);
+        }
+        if (type == byte.class) {
+            return new ByteProperty(name, kind, getter);
+        }
+        return new ReferenceProperty(name, kind, getter);
+    }
+
+    String name() {
+        return name;
+    }
+
+    ComparisonPlan.Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Whether the property has a primitive type and {@link #valuesEqual(Object, Object)} can be used instead of reading
+     * the values.
+     */
+    boolean isPrimitive() {
+        return false;
+    }
+
+    /**
+     * Compares the primitive field of both objects with the semantics of the wrapper's {@code equals}, without
+     * boxing.
+     */
+    boolean valuesEqual(Object expected, Object actual) throws Throwable {
+        throw new UnsupportedOperationException("Field '" + name + "' is not of a primitive type.");
+    }
+
+    /**
+     * Returns the hash code of the field's value, which for primitive fields is the hash code of the wrapper,
+     * computed without boxing.
+     */
+    int hashValue(Object target) throws Throwable {
+        return Objects.hashCode(get(target));
+    }
+
+    abstract Object get(Object target) throws Throwable;
+
+    private static MethodHandle adapt(MethodHandle getter, Class<?> type) {
+        return getter.asType(MethodType.methodType(type, Object.class));
+    }
+
+    private static final class ReflectiveProperty extends Property {
+        private final Field field;
+
+        private ReflectiveProperty(Field field, ComparisonPlan.Kind kind) {
+            super(field.getName(), kind);
+            this.field = field;
+        }
+
+        @Override
+        Object get(Object target) throws IllegalAccessException {
+            return field.get(target);
+        }
+    }
+
+    private static final class GeneratedProperty extends Property {
+        private final DeepComparator<Object> comparator;
+        private final int index;
+        private final boolean primitive;
+
+        private GeneratedProperty(String name, Class<?> type, DeepComparator<Object> comparator, int index) {
+            super(name, ComparisonPlan.kindOf(type));
+            this.comparator = comparator;
+            this.index = index;
+            this.primitive = type.isPrimitive();
+        }
+
+        @Override
+        boolean isPrimitive() {
+            return primitive;
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) {
+            return comparator.primitiveEquals(expected, actual, index);
+        }
+
+        @Override
+        int hashValue(Object target) {
+            return primitive ? comparator.primitiveHashCode(target, index) : Objects.hashCode(get(target));
+        }
+
+        @Override
+        Object get(Object target) {
+            return comparator.get(target, index);
+        }
+    }
+
+    private static final class ReferenceProperty extends Property {
+        private final MethodHandle getter;
+
+        private ReferenceProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, Object.class);
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (Object) getter.invokeExact(target);
+        }
+    }
+
+    private abstract static class PrimitiveProperty extends Property {
+        private PrimitiveProperty(String name, ComparisonPlan.Kind kind) {
+            super(name, kind);
+        }
+
+        @Override
+        boolean isPrimitive() {
+            return true;
+        }
+    }
+
+    private static final class IntProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private IntProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, int.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            return (int) getter.invokeExact(expected) == (int) getter.invokeExact(actual);
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Integer.hashCode((int) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (int) getter.invokeExact(target);
+        }
+    }
+
+    private static final class LongProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private LongProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, long.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            return (long) getter.invokeExact(expected) == (long) getter.invokeExact(actual);
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Long.hashCode((long) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (long) getter.invokeExact(target);
+        }
+    }
+
+    private static final class DoubleProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private DoubleProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, double.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            // Same as Double.equals: NaN equals NaN, but 0.0 does not equal -0.0
+            return Double.doubleToLongBits((double) getter.invokeExact(expected))
+                    == Double.doubleToLongBits((double) getter.invokeExact(actual));
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Double.hashCode((double) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (double) getter.invokeExact(target);
+        }
+    }
+
+    private static final class FloatProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private FloatProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, float.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            // Same as Float.equals: NaN equals NaN, but 0.0 does not equal -0.0
+            return Float.floatToIntBits((float) getter.invokeExact(expected))
+                    == Float.floatToIntBits((float) getter.invokeExact(actual));
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Float.hashCode((float) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (float) getter.invokeExact(target);
+        }
+    }
+
+    private static final class BooleanProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private BooleanProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, boolean.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            return (boolean) getter.invokeExact(expected) == (boolean) getter.invokeExact(actual);
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Boolean.hashCode((boolean) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (boolean) getter.invokeExact(target);
+        }
+    }
+
+    private static final class CharProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private CharProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, char.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            return (char) getter.invokeExact(expected) == (char) getter.invokeExact(actual);
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Character.hashCode((char) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (char) getter.invokeExact(target);
+        }
+    }
+
+    private static final class ShortProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private ShortProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, short.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            return (short) getter.invokeExact(expected) == (short) getter.invokeExact(actual);
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Short.hashCode((short) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (short) getter.invokeExact(target);
+        }
+    }
+
+    private static final class ByteProperty extends PrimitiveProperty {
+        private final MethodHandle getter;
+
+        private ByteProperty(String name, ComparisonPlan.Kind kind, MethodHandle getter) {
+            super(name, kind);
+            this.getter = adapt(getter, byte.class);
+        }
+
+        @Override
+        boolean valuesEqual(Object expected, Object actual) throws Throwable {
+            return (byte) getter.invokeExact(expected) == (byte) getter.invokeExact(actual);
+        }
+
+        @Override
+        int hashValue(Object target) throws Throwable {
+            return Byte.hashCode((byte) getter.invokeExact(target));
+        }
+
+        @Override
+        Object get(Object target) throws Throwable {
+            return (byte) getter.invokeExact(target);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * The path from the compared root to the value that is currently being compared, e.g. {@code .field[3].child} or
+ * {@code .prices[EURUSD]}. The path is kept as a stack of segments and only rendered when a difference is reported,
+ * so comparing equal values does not build any strings.
+ */
+final class ScopePath {
+
+    /**
+     * Stands in for the {@code null} key of a map, since {@code null} marks segments that are no map keys.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private String[] names = new String[16];
+    private int[] indices = new int[16];
+    private Object[] keys = new Object[16];
+    private int depth;
+
+    void pushField(String name) {
+        ensureCapacity();
+        names[depth] = name;
+        keys[depth] = null;
+        depth++;
+    }
+
+    void pushIndex(int index) {
+        ensureCapacity();
+        names[depth] = null;
+        indices[depth] = index;
+        keys[depth] = null;
+        depth++;
+    }
+
+    void pushKey(Object key) {
+        ensureCapacity();
+        names[depth] = null;
+        keys[depth] = key == null ? NULL_KEY : key;
+        depth++;
+    }
+
+    /**
+     * Pushes all segments of the other path, e.g. to continue a path in a comparison running on another thread.
+     */
+    void pushAll(ScopePath other) {
+        for (int i = 0; i < other.depth; i++) {
+            ensureCapacity();
+            names[depth] = other.names[i];
+            indices[depth] = other.indices[i];
+            keys[depth] = other.keys[i];
+            depth++;
+        }
+    }
+
+    ScopePath copy() {
+        final var copy = new ScopePath();
+        copy.pushAll(this);
+        return copy;
+    }
+
+    void pop() {
+        depth--;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Drops all segments above the given depth, e.g. after the comparison of a value was aborted by an exception.
+     */
+    void truncate(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Removes all segments and drops the references to map keys, so that a reused path does not keep them alive.
+     */
+    void clear() {
+        Arrays.fill(keys, null);
+        depth = 0;
+    }
+
+    int capacity() {
+        return names.length;
+    }
+
+    StringBuilder appendTo(StringBuilder builder) {
+        for (int i = 0; i < depth; i++) {
+            if (names[i] != null) {
+                builder.append('.').append(names[i]);
+            } else if (keys[i] != null) {
+                builder.append('[').append(keys[i] == NULL_KEY ? null : keys[i]).append(']');
+            } else {
+                builder.append('[').append(indices[i]).append(']');
+            }
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    private void ensureCapacity() {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            indices = Arrays.copyOf(indices, depth * 2);
+            keys = Arrays.copyOf(keys, depth * 2);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of an object graph, recorded by the same traversal rules as a comparison, against which objects can
+ * later be compared without rebuilding the recorded graph.
+ * <p>
+ * A snapshot starts with a header, followed by the root value and a table of the offsets of all recorded objects.
+ * Every value starts with a tag. Objects, arrays and collections carry the id of their entry in the offset table,
+ * so that an object that is referenced again, e.g. in a cycle, is recorded as a reference to that id. Classes are
+ * described once, with the names of their fields, and referenced by id afterwards. Sets and maps record the order of
+ * their items or keys after their size, so that sorted ones can be walked side by side with the actual ones.
+ */
+final class Snapshot {
+
+    static final int MAGIC = 0x43415353;
+    static final int VERSION = 3;
+
+    static final byte NULL = 0;
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+    static final byte FLOAT = 4;
+    static final byte BOOLEAN = 5;
+    static final byte CHAR = 6;
+    static final byte SHORT = 7;
+    static final byte BYTE = 8;
+    static final byte STRING = 9;
+    static final byte ENUM = 10;
+    static final byte OBJECT = 11;
+    static final byte ARRAY = 12;
+    static final byte PRIMITIVE_ARRAY = 13;
+    static final byte LIST = 14;
+    static final byte SET = 15;
+    static final byte MAP = 16;
+    static final byte REFERENCE = 17;
+    /** An object with a built-in comparator, recorded as its class and its string representation. */
+    static final byte TEXT = 18;
+    /** An object with a comparator, recorded as its class and its serialized form. */
+    static final byte SERIALIZED = 19;
+
+    /** A set or map whose items or keys are compared with equals, because its order is unknown. */
+    static final byte UNORDERED = 0;
+    /** A sorted set or map that orders its items or keys by their natural order. */
+    static final byte NATURAL_ORDER = 1;
+    /** A sorted set or map that orders its items or keys with a comparator, recorded in its serialized form. */
+    static final byte COMPARATOR_ORDER = 2;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Records the graph into the file. The snapshot is written to a temporary file first, so that an interrupted
+     * recording does not leave a broken snapshot behind.
+     */
+    static void record(Object root, Path file, ComparisonOptions options) throws IOException {
+        final var directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            SnapshotWriter.write(root, temporaryFile, options);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Compares an object with the snapshot in the file, which is mapped into memory instead of being read, and
+     * returns the message describing the differences, or {@code null} if there are none.
+     */
+    static String describeDifferences(Path file, Object actual, ComparisonOptions options) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot '" + file + "' is larger than 2 GB.");
+            }
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SnapshotReplay(buffer, options).describeDifferences(actual, file);
+        }
+    }
+}
@@ -0,0 +1,975 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compares an object graph with a {@link Snapshot} by reading the snapshot and walking the graph side by side. The
+ * expected graph is never rebuilt: only the items of sets and the keys of maps are materialized, since they have to be
+ * matched with {@code equals}, and the values that are compared as a whole, which are compared with their comparators.
+ * Differences are described like {@link Comparison} describes them.
+ * <p>
+ * Like a comparison, the replay keeps the objects it is comparing on an explicit stack, so the depth of the graphs is
+ * only limited by the heap. Parallel and unordered comparisons are not supported and the respective options are
+ * ignored.
+ */
+final class SnapshotReplay {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final ByteBuffer buffer;
+    private final ComparisonOptions options;
+    private final ScopePath currentScope = new ScopePath();
+    private final StringBuilder messageBuilder = new StringBuilder();
+    private final List<RecordedClass> classes = new ArrayList<>();
+    /**
+     * The id of the recorded object each actual object has already been compared with, so that cycles and shared
+     * substructures are only compared once. Most actual objects are only compared with a single recorded object, so
+     * only those compared with several map to a set of ids.
+     */
+    private final Map<Object, Object> visited = new IdentityHashMap<>();
+    private int[] offsets;
+    private Frame[] frames = new Frame[16];
+    private int top = -1;
+    private Path file;
+    private long differenceCount;
+    private boolean stopped;
+
+    SnapshotReplay(ByteBuffer buffer, ComparisonOptions options) {
+        this.buffer = buffer;
+        this.options = options;
+    }
+
+    String describeDifferences(Object actual, Path file) {
+        this.file = file;
+        if (buffer.limit() < 16 || buffer.getInt() != Snapshot.MAGIC) {
+            throw new IllegalStateException("'" + file + "' is not a snapshot.");
+        }
+        final var version = buffer.getInt();
+        if (version != Snapshot.VERSION) {
+            throw new IllegalStateException("Snapshot '" + file + "' has version " + version + " but only version "
+                    + Snapshot.VERSION + " is supported.");
+        }
+        readOffsets();
+
+        final var start = buffer.position();
+        if (buffer.get(start) == Snapshot.NULL) {
+            return actual == null ? null : "Expected element was null but actual element was not null.";
+        }
+        if (actual == null) {
+            return "Expected element was not null but actual element was null.";
+        }
+        final var expectedType = typeNameAt(start);
+        if (!expectedType.equals(actual.getClass().getName())) {
+            return "Expected element to be of type '" + expectedType + "' but was of type '"
+                    + actual.getClass().getName() + "'.";
+        }
+        compareGraph(actual);
+        if (differenceCount == 0) {
+            return null;
+        }
+        return Comparison.finishMessage(messageBuilder, differenceCount, stopped, options);
+    }
+
+    private void readOffsets() {
+        final var limit = buffer.limit();
+        final var count = buffer.getInt(limit - 8);
+        final var tableOffset = buffer.getInt(limit - 4);
+        offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = buffer.getInt(tableOffset + i * 4);
+        }
+    }
+
+    /**
+     * Compares the root value, then the items and fields of the objects on the stack one at a time, which reports
+     * differences in the same order as a recursive walk would.
+     */
+    private void compareGraph(Object actual) {
+        compareValue(actual);
+        while (top >= 0 && !stopped) {
+            final var frame = frames[top];
+            currentScope.truncate(frame.scopeDepth);
+            switch (frame.type) {
+                case Frame.ITEMS -> compareNextItem(frame);
+                case Frame.ENTRIES -> compareNextEntry(frame);
+                case Frame.SORTED_ENTRIES -> compareNextSortedEntry(frame);
+                case Frame.PROPERTIES -> compareNextProperty(frame);
+                default -> {
+                    buffer.position(frame.returnPosition);
+                    pop();
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the recorded value at the current position with the actual value, and moves past the recorded value.
+     * Objects, arrays and collections only get their header read, and are pushed so that their items and fields are
+     * compared next.
+     */
+    private void compareValue(Object actual) {
+        final var tag = buffer.get(buffer.position());
+        if (tag == Snapshot.NULL) {
+            buffer.get();
+            if (actual != null && recordDifference()) {
+                startMessage().append("' to be null but was not null.").append(LINE_SEPARATOR);
+            }
+            return;
+        }
+        if (actual == null) {
+            if (recordDifference()) {
+                startMessage().append("' to be not null but was null.").append(LINE_SEPARATOR);
+            }
+            skipValue();
+            return;
+        }
+        final var expectedType = typeNameAt(buffer.position());
+        if (!expectedType.equals(actual.getClass().getName())) {
+            if (recordDifference()) {
+                startMessage().append("' to be of type '").append(expectedType).append("' but was of type '")
+                        .append(actual.getClass().getName()).append("'.").append(LINE_SEPARATOR);
+            }
+            skipValue();
+            return;
+        }
+        switch (tag) {
+            case Snapshot.ENUM -> {
+                buffer.get();
+                readString();
+                final var expectedName = readString();
+                if (!expectedName.equals(((Enum<?>) actual).name())) {
+                    recordValueDifference(expectedName, actual);
+                }
+            }
+            case Snapshot.TEXT -> {
+                buffer.get();
+                readString();
+                final var expectedText = readString();
+                if (!expectedText.equals(actual.toString())) {
+                    recordValueDifference(expectedText, actual);
+                }
+            }
+            case Snapshot.SERIALIZED -> {
+                buffer.get();
+                readString();
+                final var expected = readSerialized(actual);
+                final var comparator = options.comparators().entryFor(actual.getClass());
+                if (comparator == null ? !expected.equals(actual) : !comparator.areEqual(expected, actual)) {
+                    recordValueDifference(expected, actual);
+                }
+            }
+            case Snapshot.REFERENCE -> {
+                buffer.get();
+                final var id = buffer.getInt();
+                if (wasVisited(id, actual)) {
+                    return;
+                }
+                // The referenced object is compared where it was recorded, which marks it as visited, and the replay
+                // continues after the reference once it has been compared
+                push(Frame.RETURN, actual).returnPosition = buffer.position();
+                buffer.position(offsets[id]);
+                compareValue(actual);
+            }
+            case Snapshot.OBJECT -> compareObject(actual);
+            case Snapshot.ARRAY -> compareArray(actual);
+            case Snapshot.PRIMITIVE_ARRAY -> comparePrimitiveArray(actual);
+            case Snapshot.LIST -> compareList(actual);
+            case Snapshot.SET -> compareSet(actual);
+            case Snapshot.MAP -> compareMap(actual);
+            default -> {
+                final var expected = readScalar();
+                if (!expected.equals(actual)) {
+                    recordValueDifference(expected, actual);
+                }
+            }
+        }
+    }
+
+    private void compareObject(Object actual) {
+        buffer.get();
+        final var id = buffer.getInt();
+        final var recordedClass = readClass();
+        if (isVisited(id, actual)) {
+            skipProperties(recordedClass);
+            return;
+        }
+        pushProperties(recordedClass, actual);
+    }
+
+    private void compareArray(Object actual) {
+        buffer.get();
+        final var id = buffer.getInt();
+        readClass();
+        final var length = buffer.getInt();
+        if (isVisited(id, actual)) {
+            skipValues(length);
+            return;
+        }
+        final var actualLength = Array.getLength(actual);
+        if (length != actualLength) {
+            if (recordDifference()) {
+                startMessage().append("' to be of length ").append(length).append(" but was of length ")
+                        .append(actualLength).append(".").append(LINE_SEPARATOR);
+            }
+            skipValues(length);
+            return;
+        }
+        push(Frame.ITEMS, actual).length = length;
+    }
+
+    private void compareList(Object actual) {
+        buffer.get();
+        final var id = buffer.getInt();
+        final var recordedClass = readClass();
+        final var size = buffer.getInt();
+        if (isVisited(id, actual)) {
+            skipValues(size);
+            skipProperties(recordedClass);
+            return;
+        }
+        final var actualList = (List<?>) actual;
+        // The fields are compared once the items have been compared
+        pushProperties(recordedClass, actual);
+        if (size != actualList.size()) {
+            if (recordDifference()) {
+                startMessage().append("' to be of size ").append(size).append(" but was of size ")
+                        .append(actualList.size()).append(".").append(LINE_SEPARATOR);
+            }
+            skipValues(size);
+        } else {
+            final var frame = push(Frame.ITEMS, actual);
+            frame.length = size;
+            frame.actualItems = actualList.iterator();
+        }
+    }
+
+    private void compareSet(Object actual) {
+        buffer.get();
+        final var id = buffer.getInt();
+        final var recordedClass = readClass();
+        final var size = buffer.getInt();
+        final var sameOrder = readSameOrder(actual);
+        if (isVisited(id, actual)) {
+            skipValues(size);
+            skipProperties(recordedClass);
+            return;
+        }
+        final var actualItems = new LinkedHashSet<>();
+        var actualSize = 0;
+        for (var item : (Iterable<?>) actual) {
+            actualItems.add(item);
+            actualSize++;
+        }
+        if (actual instanceof final Collection<?> collection) {
+            actualSize = collection.size();
+        }
+        if (size != actualSize) {
+            if (recordDifference()) {
+                startMessage().append("' to be of size ").append(size).append(" but was of size ")
+                        .append(actualSize).append(".").append(LINE_SEPARATOR);
+            }
+            skipValues(size);
+        } else {
+            final var expectedItems = new LinkedHashSet<>();
+            for (int i = 0; i < size; i++) {
+                expectedItems.add(readScalar());
+            }
+            final var missingItems = new LinkedHashSet<>();
+            final var unexpectedItems = new LinkedHashSet<>();
+            if (sameOrder) {
+                Comparison.findSymmetricDifferenceOfSortedItems(((SortedSet<?>) actual).comparator(),
+                        expectedItems.iterator(), actualItems.iterator(), missingItems, unexpectedItems);
+            } else {
+                missingItems.addAll(expectedItems);
+                missingItems.removeAll(actualItems);
+                unexpectedItems.addAll(actualItems);
+                unexpectedItems.removeAll(expectedItems);
+            }
+            final var differentItems = missingItems.size() + unexpectedItems.size();
+            if (differentItems > 0 && recordDifference()) {
+                startMessage().append("' to contain same items, however ").append(differentItems)
+                        .append(" items were different. Missing: ");
+                final var remaining = Comparison.appendItems(messageBuilder, missingItems, options.maxDifferences());
+                messageBuilder.append(", unexpected: ");
+                Comparison.appendItems(messageBuilder, unexpectedItems, remaining);
+                messageBuilder.append(".").append(LINE_SEPARATOR);
+            }
+        }
+        pushProperties(recordedClass, actual);
+    }
+
+    private void compareMap(Object actual) {
+        buffer.get();
+        final var id = buffer.getInt();
+        readClass();
+        final var size = buffer.getInt();
+        final var sameOrder = readSameOrder(actual);
+        if (isVisited(id, actual)) {
+            skipValues(size * 2L);
+            return;
+        }
+        if (sameOrder) {
+            final var frame = push(Frame.SORTED_ENTRIES, actual);
+            frame.length = size;
+            frame.actualItems = ((Map<?, ?>) actual).entrySet().iterator();
+            frame.comparator = ((SortedMap<?, ?>) actual).comparator();
+            return;
+        }
+        final var frame = push(Frame.ENTRIES, actual);
+        frame.length = size;
+        frame.expectedKeys = new HashSet<>();
+    }
+
+    /**
+     * Reads the order of a recorded set or map, and returns whether the actual set or map is sorted the same way. Such
+     * sets and maps are walked side by side, like a comparison walks two sorted sets or maps with the same comparator.
+     */
+    private boolean readSameOrder(Object actual) {
+        final var order = buffer.get();
+        final var recordedComparator = order == Snapshot.COMPARATOR_ORDER ? readBytes() : null;
+        final Comparator<?> comparator;
+        if (actual instanceof final SortedSet<?> sortedSet) {
+            comparator = sortedSet.comparator();
+        } else if (actual instanceof final SortedMap<?, ?> sortedMap) {
+            comparator = sortedMap.comparator();
+        } else {
+            return false;
+        }
+        if (order == Snapshot.NATURAL_ORDER) {
+            return comparator == null;
+        }
+        if (recordedComparator == null || comparator == null) {
+            return false;
+        }
+        // A comparator whose serialized form contains other classes than the actual one is a different comparator
+        final var classes = serializedClasses(comparator);
+        return classes != null && comparator.equals(deserialize(recordedComparator, new SerializedClassFilter(classes),
+                comparator.getClass().getName()));
+    }
+
+    private void compareNextItem(Frame frame) {
+        if (frame.index == frame.length) {
+            pop();
+            return;
+        }
+        final var i = frame.index++;
+        currentScope.pushIndex(i);
+        compareValue(frame.actualItems == null ? Array.get(frame.actual, i) : frame.actualItems.next());
+    }
+
+    /**
+     * Compares the value of the next recorded entry with the value the actual map holds for its key. Once all entries
+     * have been compared, reports the keys that only the actual map contains.
+     */
+    private void compareNextEntry(Frame frame) {
+        final var actualMap = (Map<?, ?>) frame.actual;
+        if (frame.index < frame.length) {
+            frame.index++;
+            final var key = readScalar();
+            frame.expectedKeys.add(key);
+            final var actualValue = actualMap.get(key);
+            if (actualValue == null && !actualMap.containsKey(key)) {
+                if (recordDifference()) {
+                    startMessage().append("' to contain key '").append(key).append("' but it was missing.")
+                            .append(LINE_SEPARATOR);
+                }
+                skipValue();
+                return;
+            }
+            currentScope.pushKey(key);
+            compareValue(actualValue);
+            return;
+        }
+        for (var key : actualMap.keySet()) {
+            if (stopped) {
+                return;
+            }
+            if (!frame.expectedKeys.contains(key) && recordDifference()) {
+                startMessage().append("' to not contain key '").append(key).append("' but it was present.")
+                        .append(LINE_SEPARATOR);
+            }
+        }
+        pop();
+    }
+
+    /**
+     * Walks the recorded entries and the entries of a sorted actual map side by side, so that missing and unexpected
+     * keys are reported in the order of the keys, as a comparison of two sorted maps does.
+     */
+    private void compareNextSortedEntry(Frame frame) {
+        if (!frame.hasExpectedKey && frame.index < frame.length) {
+            frame.index++;
+            frame.expectedKey = readScalar();
+            frame.hasExpectedKey = true;
+        }
+        if (frame.actualEntry == null && frame.actualItems.hasNext()) {
+            frame.actualEntry = (Map.Entry<?, ?>) frame.actualItems.next();
+        }
+        final var actualEntry = frame.actualEntry;
+        if (!frame.hasExpectedKey && actualEntry == null) {
+            pop();
+            return;
+        }
+        final int order;
+        if (!frame.hasExpectedKey) {
+            order = 1;
+        } else if (actualEntry == null) {
+            order = -1;
+        } else {
+            order = Comparison.compareKeys(frame.comparator, frame.expectedKey, actualEntry.getKey());
+        }
+        if (order > 0) {
+            frame.actualEntry = null;
+            if (recordDifference()) {
+                startMessage().append("' to not contain key '").append(actualEntry.getKey())
+                        .append("' but it was present.").append(LINE_SEPARATOR);
+            }
+            return;
+        }
+        final var key = frame.expectedKey;
+        frame.hasExpectedKey = false;
+        frame.expectedKey = null;
+        if (order < 0) {
+            if (recordDifference()) {
+                startMessage().append("' to contain key '").append(key).append("' but it was missing.")
+                        .append(LINE_SEPARATOR);
+            }
+            skipValue();
+            return;
+        }
+        frame.actualEntry = null;
+        currentScope.pushKey(key);
+        compareValue(actualEntry.getValue());
+    }
+
+    private void compareNextProperty(Frame frame) {
+        if (frame.index == frame.properties.length) {
+            pop();
+            return;
+        }
+        final var property = frame.properties[frame.index++];
+        final Object actualValue;
+        try {
+            actualValue = property.get(frame.actual);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+        currentScope.pushField(property.name());
+        compareValue(actualValue);
+    }
+
+    private void pushProperties(RecordedClass recordedClass, Object actual) {
+        push(Frame.PROPERTIES, actual).properties = recordedClass.propertiesOf(actual.getClass(), file);
+    }
+
+    private Frame push(int type, Object actual) {
+        top++;
+        if (top == frames.length) {
+            frames = Arrays.copyOf(frames, top * 2);
+        }
+        var frame = frames[top];
+        if (frame == null) {
+            frame = new Frame();
+            frames[top] = frame;
+        }
+        frame.type = type;
+        frame.actual = actual;
+        frame.index = 0;
+        frame.scopeDepth = currentScope.depth();
+        return frame;
+    }
+
+    private void pop() {
+        final var frame = frames[top--];
+        frame.actual = null;
+        frame.actualItems = null;
+        frame.expectedKeys = null;
+        frame.properties = null;
+        frame.comparator = null;
+        frame.expectedKey = null;
+        frame.hasExpectedKey = false;
+        frame.actualEntry = null;
+    }
+
+    /**
+     * Compares a primitive array of the same type. Like {@link Comparison}, mismatching indices are located in bulk,
+     * here between views of the mapped snapshot and the array, so only the values that are reported get boxed.
+     */
+    private void comparePrimitiveArray(Object actual) {
+        buffer.get();
+        readClass();
+        final var length = buffer.getInt();
+        final var start = buffer.position();
+        final var elementSize = elementSize(actual.getClass().getName());
+        buffer.position(start + length * elementSize);
+        final var actualLength = Array.getLength(actual);
+        if (length != actualLength) {
+            if (recordDifference()) {
+                startMessage().append("' to be of length ").append(length).append(" but was of length ")
+                        .append(actualLength).append(".").append(LINE_SEPARATOR);
+            }
+            return;
+        }
+        final var items = buffer.slice(start, length * elementSize);
+        final IntUnaryOperator mismatchFrom;
+        final IntFunction<Object> expectedItem;
+        if (actual instanceof final int[] array) {
+            final var expected = items.asIntBuffer();
+            mismatchFrom = from -> IntBuffer.wrap(array, from, length - from)
+                    .mismatch(expected.slice(from, length - from));
+            expectedItem = expected::get;
+        } else if (actual instanceof final long[] array) {
+            final var expected = items.asLongBuffer();
+            mismatchFrom = from -> LongBuffer.wrap(array, from, length - from)
+                    .mismatch(expected.slice(from, length - from));
+            expectedItem = expected::get;
+        } else if (actual instanceof final short[] array) {
+            final var expected = items.asShortBuffer();
+            mismatchFrom = from -> ShortBuffer.wrap(array, from, length - from)
+                    .mismatch(expected.slice(from, length - from));
+            expectedItem = expected::get;
+        } else if (actual instanceof final char[] array) {
+            final var expected = items.asCharBuffer();
+            mismatchFrom = from -> CharBuffer.wrap(array, from, length - from)
+                    .mismatch(expected.slice(from, length - from));
+            expectedItem = expected::get;
+        } else if (actual instanceof final byte[] array) {
+            mismatchFrom = from -> ByteBuffer.wrap(array, from, length - from)
+                    .mismatch(items.slice(from, length - from));
+            expectedItem = items::get;
+        } else {
+            // Buffers compare floating point values unlike their wrappers do, and there are no buffers of booleans,
+            // so the remaining types are compared one by one
+            if (actual instanceof double[]) {
+                expectedItem = index -> items.getDouble(index * 8);
+            } else if (actual instanceof float[]) {
+                expectedItem = index -> items.getFloat(index * 4);
+            } else {
+                expectedItem = index -> items.get(index) != 0;
+            }
+            mismatchFrom = from -> {
+                for (int i = from; i < length; i++) {
+                    if (!expectedItem.apply(i).equals(Array.get(actual, i))) {
+                        return i - from;
+                    }
+                }
+                return -1;
+            };
+        }
+        var from = 0;
+        while (from < length && !stopped) {
+            final var offset = mismatchFrom.applyAsInt(from);
+            if (offset < 0) {
+                break;
+            }
+            final var index = from + offset;
+            currentScope.pushIndex(index);
+            recordValueDifference(expectedItem.apply(index), Array.get(actual, index));
+            currentScope.pop();
+            from = index + 1;
+        }
+    }
+
+    /**
+     * Returns the name of the class of the recorded value at the position, without moving past it.
+     */
+    private String typeNameAt(int position) {
+        return switch (buffer.get(position)) {
+            case Snapshot.INT -> Integer.class.getName();
+            case Snapshot.LONG -> Long.class.getName();
+            case Snapshot.DOUBLE -> Double.class.getName();
+            case Snapshot.FLOAT -> Float.class.getName();
+            case Snapshot.BOOLEAN -> Boolean.class.getName();
+            case Snapshot.CHAR -> Character.class.getName();
+            case Snapshot.SHORT -> Short.class.getName();
+            case Snapshot.BYTE -> Byte.class.getName();
+            case Snapshot.STRING -> String.class.getName();
+            case Snapshot.REFERENCE -> typeNameAt(offsets[buffer.getInt(position + 1)]);
+            default -> {
+                final var current = buffer.position();
+                buffer.position(position + 1);
+                final var tag = buffer.get(position);
+                final String name;
+                if (tag == Snapshot.ENUM || tag == Snapshot.TEXT || tag == Snapshot.SERIALIZED) {
+                    name = readString();
+                } else {
+                    if (tag != Snapshot.PRIMITIVE_ARRAY) {
+                        buffer.getInt();
+                    }
+                    name = readClass().name;
+                }
+                buffer.position(current);
+                yield name;
+            }
+        };
+    }
+
+    /**
+     * Reads a primitive wrapper, string or enum constant.
+     */
+    private Object readScalar() {
+        final var tag = buffer.get();
+        return switch (tag) {
+            case Snapshot.NULL -> null;
+            case Snapshot.INT -> buffer.getInt();
+            case Snapshot.LONG -> buffer.getLong();
+            case Snapshot.DOUBLE -> buffer.getDouble();
+            case Snapshot.FLOAT -> buffer.getFloat();
+            case Snapshot.BOOLEAN -> buffer.get() != 0;
+            case Snapshot.CHAR -> buffer.getChar();
+            case Snapshot.SHORT -> buffer.getShort();
+            case Snapshot.BYTE -> buffer.get();
+            case Snapshot.STRING -> readString();
+            case Snapshot.ENUM -> readEnum();
+            default -> throw new IllegalStateException("Snapshot '" + file + "' is corrupt: expected a value but found "
+                    + "tag " + tag + ".");
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum() {
+        final var className = readString();
+        final var name = readString();
+        try {
+            return Enum.valueOf((Class) Class.forName(className, false, SnapshotReplay.class.getClassLoader()), name);
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            throw new IllegalStateException("Snapshot '" + file + "' is outdated: constant '" + name + "' of '"
+                    + className + "' does not exist anymore. Delete the snapshot to record it again.", e);
+        }
+    }
+
+    /**
+     * Reads a value that was recorded in its serialized form. Snapshots are files like any other in the repository, so
+     * only the classes that the actual value is serialized to are read, instead of any class on the classpath.
+     */
+    private Object readSerialized(Object actual) {
+        final var className = actual.getClass().getName();
+        final var bytes = readBytes();
+        final var classes = serializedClasses(actual);
+        if (classes == null) {
+            throw new IllegalArgumentException("Objects with a custom comparator can only be compared with a snapshot "
+                    + "if they can be serialized and read again, but found '" + className + "'.");
+        }
+        final var filter = new SerializedClassFilter(classes);
+        final var expected = deserialize(bytes, filter, className);
+        if (expected == null) {
+            throw new IllegalStateException("Snapshot '" + file + "' cannot be read: the recorded value of '"
+                    + className + "' contains '" + filter.rejected.getName() + "', which the actual value is not "
+                    + "serialized to.");
+        }
+        return expected;
+    }
+
+    /**
+     * Reads a serialized object with a filter, and returns {@code null} if the filter rejected one of its classes.
+     */
+    private Object deserialize(byte[] bytes, SerializedClassFilter filter, String className) {
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(filter);
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            if (filter.rejected != null) {
+                return null;
+            }
+            throw new IllegalStateException("Snapshot '" + file + "' is outdated: the recorded value of '" + className
+                    + "' cannot be read anymore. Delete the snapshot to record it again.", e);
+        }
+    }
+
+    /**
+     * Returns the classes that are read when the value is serialized and read again, including superclasses, array
+     * classes and the classes that stand in for the value in its serialized form, or {@code null} if the value cannot
+     * be serialized and read again.
+     */
+    private static Set<Class<?>> serializedClasses(Object value) {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            return null;
+        }
+        final var classes = new HashSet<Class<?>>();
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            in.setObjectInputFilter(info -> {
+                if (info.serialClass() != null) {
+                    classes.add(info.serialClass());
+                }
+                return ObjectInputFilter.Status.UNDECIDED;
+            });
+            in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+        return classes;
+    }
+
+    private byte[] readBytes() {
+        final var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private String readString() {
+        final var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a reference to a class, registering the class first if the reference defines it.
+     */
+    private RecordedClass readClass() {
+        final var reference = buffer.getInt();
+        if (reference >= 0) {
+            return classes.get(reference);
+        }
+        final var id = -reference - 1;
+        final var name = readString();
+        final var fieldNames = new String[buffer.getInt()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = readString();
+        }
+        // A definition is read again when a reference jumps back to an object that is being compared
+        if (id == classes.size()) {
+            classes.add(new RecordedClass(name, fieldNames));
+        }
+        return classes.get(id);
+    }
+
+    /**
+     * Moves past the recorded value at the current position, e.g. after it was reported as different.
+     */
+    private void skipValue() {
+        skipValues(1);
+    }
+
+    /**
+     * Moves past recorded values. The items and fields of objects, arrays and collections follow their headers, so
+     * they are skipped by counting them as values that remain to be skipped.
+     */
+    private void skipValues(long count) {
+        for (var remaining = count; remaining > 0; remaining--) {
+            final var tag = buffer.get();
+            switch (tag) {
+                case Snapshot.NULL -> {
+                }
+                case Snapshot.BOOLEAN, Snapshot.BYTE -> buffer.position(buffer.position() + 1);
+                case Snapshot.CHAR, Snapshot.SHORT -> buffer.position(buffer.position() + 2);
+                case Snapshot.INT, Snapshot.FLOAT, Snapshot.REFERENCE -> buffer.position(buffer.position() + 4);
+                case Snapshot.LONG, Snapshot.DOUBLE -> buffer.position(buffer.position() + 8);
+                case Snapshot.STRING -> skipString();
+                case Snapshot.ENUM, Snapshot.TEXT, Snapshot.SERIALIZED -> {
+                    skipString();
+                    skipString();
+                }
+                case Snapshot.PRIMITIVE_ARRAY -> {
+                    final var recordedClass = readClass();
+                    final var length = buffer.getInt();
+                    buffer.position(buffer.position() + length * elementSize(recordedClass.name));
+                }
+                case Snapshot.OBJECT -> {
+                    buffer.getInt();
+                    remaining += readClass().fieldNames.length;
+                }
+                case Snapshot.ARRAY, Snapshot.LIST, Snapshot.SET, Snapshot.MAP -> {
+                    buffer.getInt();
+                    final var recordedClass = readClass();
+                    final var size = buffer.getInt();
+                    if ((tag == Snapshot.SET || tag == Snapshot.MAP) && buffer.get() == Snapshot.COMPARATOR_ORDER) {
+                        skipString();
+                    }
+                    remaining += tag == Snapshot.MAP ? size * 2L : size;
+                    if (tag == Snapshot.LIST || tag == Snapshot.SET) {
+                        remaining += recordedClass.fieldNames.length;
+                    }
+                }
+                default -> throw new IllegalStateException("Snapshot '" + file + "' is corrupt: unknown tag " + tag
+                        + ".");
+            }
+        }
+    }
+
+    private void skipProperties(RecordedClass recordedClass) {
+        skipValues(recordedClass.fieldNames.length);
+    }
+
+    private void skipString() {
+        final var length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Marks the recorded object as compared with the actual object, and returns whether it already was.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isVisited(int id, Object actual) {
+        final var known = visited.putIfAbsent(actual, id);
+        if (known == null) {
+            return false;
+        }
+        if (known instanceof final Integer knownId) {
+            if (knownId == id) {
+                return true;
+            }
+            visited.put(actual, new HashSet<>(List.of(knownId, id)));
+            return false;
+        }
+        return !((Set<Integer>) known).add(id);
+    }
+
+    private boolean wasVisited(int id, Object actual) {
+        final var known = visited.get(actual);
+        return known instanceof final Integer knownId ? knownId == id
+                : known != null && ((Set<?>) known).contains(id);
+    }
+
+    private void recordValueDifference(Object expected, Object actual) {
+        if (recordDifference()) {
+            startMessage().append("' to be '").append(expected).append("' but was '").append(actual).append("'.")
+                    .append(LINE_SEPARATOR);
+        }
+    }
+
+    private boolean recordDifference() {
+        differenceCount++;
+        if (differenceCount > options.maxDifferences()) {
+            stopped = options.stopAtMaxDifferences();
+            return false;
+        }
+        return true;
+    }
+
+    private StringBuilder startMessage() {
+        return currentScope.appendTo(messageBuilder.append("Expected '"));
+    }
+
+    private static int elementSize(String arrayClassName) {
+        return switch (arrayClassName) {
+            case "[J", "[D" -> 8;
+            case "[I", "[F" -> 4;
+            case "[S", "[C" -> 2;
+            default -> 1;
+        };
+    }
+
+    /**
+     * A class as it was recorded, with the names of the fields that were recorded for its instances.
+     */
+    private static final class RecordedClass {
+
+        private final String name;
+        private final String[] fieldNames;
+        private Property[] properties;
+
+        private RecordedClass(String name, String[] fieldNames) {
+            this.name = name;
+            this.fieldNames = fieldNames;
+        }
+
+        /**
+         * Returns the fields of the actual class, which has the recorded name, once they were checked to be the
+         * recorded fields.
+         */
+        Property[] propertiesOf(Class<?> type, Path file) {
+            if (properties == null) {
+                final var actualProperties = ComparisonPlan.of(type).properties();
+                final var actualNames = new String[actualProperties.length];
+                for (int i = 0; i < actualProperties.length; i++) {
+                    actualNames[i] = actualProperties[i].name();
+                }
+                if (!Arrays.equals(fieldNames, actualNames)) {
+                    throw new IllegalStateException("Snapshot '" + file + "' is outdated: '" + name
+                            + "' was recorded with the fields " + Arrays.toString(fieldNames)
+                            + " but has the fields " + Arrays.toString(actualNames)
+                            + ". Delete the snapshot to record it again.");
+                }
+                properties = actualProperties;
+            }
+            return properties;
+        }
+    }
+
+    /**
+     * The items, entries or fields of an actual object that are being compared with the recorded ones, or the
+     * position to return to once a referenced object has been compared.
+     */
+    private static final class Frame {
+        static final int ITEMS = 0;
+        static final int ENTRIES = 1;
+        static final int PROPERTIES = 2;
+        static final int RETURN = 3;
+        static final int SORTED_ENTRIES = 4;
+
+        int type;
+        Object actual;
+        int scopeDepth;
+        int index;
+        int length;
+        Iterator<?> actualItems;
+        HashSet<Object> expectedKeys;
+        Comparator<?> comparator;
+        Object expectedKey;
+        boolean hasExpectedKey;
+        Map.Entry<?, ?> actualEntry;
+        Property[] properties;
+        int returnPosition;
+    }
+
+    /**
+     * Rejects every class that is not one of the given classes, and remembers the first class it rejected.
+     */
+    private static final class SerializedClassFilter implements ObjectInputFilter {
+
+        private final Set<Class<?>> classes;
+        private Class<?> rejected;
+
+        private SerializedClassFilter(Set<Class<?>> classes) {
+            this.classes = classes;
+        }
+
+        @Override
+        public Status checkInput(FilterInfo info) {
+            final var type = info.serialClass();
+            if (type == null) {
+                return Status.UNDECIDED;
+            }
+            if (classes.contains(type)) {
+                return Status.ALLOWED;
+            }
+            if (rejected == null) {
+                rejected = type;
+            }
+            return Status.REJECTED;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Writes the {@link Snapshot} of an object graph, visiting fields and items like a comparison does. Like a
+ * comparison, it keeps the objects it is writing on an explicit stack, so the depth of the graph is only limited by
+ * the heap.
+ */
+final class SnapshotWriter {
+
+    private static final Property[] NO_PROPERTIES = new Property[0];
+
+    private final DataOutputStream out;
+    private final ComparatorRegistry comparators;
+    private final InaccessibleTypePolicy inaccessibleTypes;
+    private final Map<Object, Integer> ids = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+    private int[] offsets = new int[64];
+    private int objectCount;
+    private Frame[] frames = new Frame[16];
+    private int top = -1;
+
+    private SnapshotWriter(DataOutputStream out, ComparisonOptions options) {
+        this.out = out;
+        this.comparators = options.comparators();
+        this.inaccessibleTypes = options.inaccessibleTypes();
+    }
+
+    static void write(Object root, Path file, ComparisonOptions options) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            final var writer = new SnapshotWriter(out, options);
+            out.writeInt(Snapshot.MAGIC);
+            out.writeInt(Snapshot.VERSION);
+            writer.writeGraph(root);
+            writer.writeOffsets();
+        }
+    }
+
+    /**
+     * Writes the root value, then the items and fields of the objects on the stack one at a time, which writes them
+     * in the same order as a recursive walk would.
+     */
+    private void writeGraph(Object root) throws IOException {
+        writeValue(root);
+        while (top >= 0) {
+            final var frame = frames[top];
+            if (frame.index < frame.length) {
+                writeValue(Array.get(frame.value, frame.index++));
+            } else if (frame.items != null && frame.items.hasNext()) {
+                final var item = frame.items.next();
+                if (frame.entries) {
+                    final var entry = (Map.Entry<?, ?>) item;
+                    requireScalar(entry.getKey(), "keys", frame.value.getClass());
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                } else {
+                    if (frame.scalarItems) {
+                        // Items of sets are compared with equals, which can only be replayed for values
+                        requireScalar(item, "items", frame.value.getClass());
+                    }
+                    writeValue(item);
+                }
+            } else if (frame.property < frame.properties.length) {
+                writeValue(get(frame.properties[frame.property++], frame.value));
+            } else {
+                pop();
+            }
+        }
+    }
+
+    /**
+     * Writes a value that has no items or fields right away. Objects, arrays and collections only get their header
+     * written, and are pushed so that their items and fields are written next.
+     */
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(Snapshot.NULL);
+            return;
+        }
+        final var type = value.getClass();
+        final var plan = ComparisonPlan.of(type);
+        if (plan.kind() == ComparisonPlan.Kind.VALUE) {
+            writeScalar(value);
+            return;
+        }
+        final var comparator = comparators.entryFor(type);
+        if (comparator != null) {
+            writeComparedValue(value, comparator);
+            return;
+        }
+        if (plan.kind() == ComparisonPlan.Kind.ITERATOR) {
+            throw new IllegalArgumentException("Iterators and streams cannot be recorded in a snapshot, but found '"
+                    + type.getName() + "'.");
+        }
+        // Skipped objects are recorded without fields, so that they never differ
+        if (plan.kind() == ComparisonPlan.Kind.OBJECT && !plan.isAccessible()
+                && inaccessibleTypes.appliedTo(plan) != InaccessibleTypePolicy.SKIP) {
+            throw new IllegalArgumentException("Objects whose fields are not accessible can only be recorded in a "
+                    + "snapshot if they are skipped, but found '" + type.getName() + "'.");
+        }
+        if (plan.kind() == ComparisonPlan.Kind.ARRAY && type.getComponentType().isPrimitive()) {
+            writePrimitiveArray(value);
+            return;
+        }
+        // Objects that are referenced again are only recorded once, like they are only compared once
+        final var knownId = plan.isLeaf() ? null : ids.get(value);
+        if (knownId != null) {
+            out.writeByte(Snapshot.REFERENCE);
+            out.writeInt(knownId);
+            return;
+        }
+        final var id = register(value, plan);
+        switch (plan.kind()) {
+            case ARRAY -> {
+                final var length = Array.getLength(value);
+                writeHeader(Snapshot.ARRAY, id, type, plan);
+                out.writeInt(length);
+                push(value, length, null, NO_PROPERTIES);
+            }
+            case LIST -> {
+                final var list = (List<?>) value;
+                writeHeader(Snapshot.LIST, id, type, plan);
+                out.writeInt(list.size());
+                push(value, 0, list.iterator(), plan.properties());
+            }
+            case ITERABLE -> {
+                final var items = value instanceof final Collection<?> collection ? collection : bufferItems(value);
+                writeHeader(Snapshot.SET, id, type, plan);
+                out.writeInt(items.size());
+                writeOrder(value);
+                push(value, 0, items.iterator(), plan.properties()).scalarItems = true;
+            }
+            case MAP -> {
+                final var map = (Map<?, ?>) value;
+                writeHeader(Snapshot.MAP, id, type, plan);
+                out.writeInt(map.size());
+                writeOrder(value);
+                push(value, 0, map.entrySet().iterator(), NO_PROPERTIES).entries = true;
+            }
+            default -> {
+                writeHeader(Snapshot.OBJECT, id, type, plan);
+                push(value, 0, null, plan.properties());
+            }
+        }
+    }
+
+    /**
+     * Writes a value that is compared as a whole, serialized so that it can be compared with the same comparator
+     * when replaying. Only the built-in comparators, which use equals, can fall back to the string representation,
+     * which identifies the few types of the JDK that are not serializable, e.g. paths and charsets.
+     */
+    private void writeComparedValue(Object value, ComparatorRegistry.Entry comparator) throws IOException {
+        final var type = value.getClass();
+        if (value instanceof Serializable) {
+            final var bytes = new ByteArrayOutputStream();
+            try (var objectOut = new ObjectOutputStream(bytes)) {
+                objectOut.writeObject(value);
+            }
+            out.writeByte(Snapshot.SERIALIZED);
+            writeString(type.getName());
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            return;
+        }
+        if (!comparator.usesEquals()) {
+            throw new IllegalArgumentException("Objects with a custom comparator can only be recorded in a snapshot if "
+                    + "they are serializable, but found '" + type.getName() + "'.");
+        }
+        out.writeByte(Snapshot.TEXT);
+        writeString(type.getName());
+        writeString(value.toString());
+    }
+
+    /**
+     * Writes the order of a set or map. Comparators that cannot be serialized are not recorded, and their sets and
+     * maps are replayed like unordered ones.
+     */
+    private void writeOrder(Object value) throws IOException {
+        final Comparator<?> comparator;
+        if (value instanceof final SortedSet<?> sortedSet) {
+            comparator = sortedSet.comparator();
+        } else if (value instanceof final SortedMap<?, ?> sortedMap) {
+            comparator = sortedMap.comparator();
+        } else {
+            out.writeByte(Snapshot.UNORDERED);
+            return;
+        }
+        if (comparator == null) {
+            out.writeByte(Snapshot.NATURAL_ORDER);
+            return;
+        }
+        final var bytes = new ByteArrayOutputStream();
+        try (var objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(comparator);
+        } catch (NotSerializableException e) {
+            out.writeByte(Snapshot.UNORDERED);
+            return;
+        }
+        out.writeByte(Snapshot.COMPARATOR_ORDER);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private Frame push(Object value, int length, Iterator<?> items, Property[] properties) {
+        top++;
+        if (top == frames.length) {
+            frames = Arrays.copyOf(frames, top * 2);
+        }
+        var frame = frames[top];
+        if (frame == null) {
+            frame = new Frame();
+            frames[top] = frame;
+        }
+        frame.value = value;
+        frame.index = 0;
+        frame.length = length;
+        frame.items = items;
+        frame.scalarItems = false;
+        frame.entries = false;
+        frame.properties = properties;
+        frame.property = 0;
+        return frame;
+    }
+
+    private void pop() {
+        final var frame = frames[top--];
+        frame.value = null;
+        frame.items = null;
+        frame.properties = null;
+    }
+
+    private int register(Object value, ComparisonPlan plan) {
+        final var id = objectCount++;
+        if (id == offsets.length) {
+            offsets = Arrays.copyOf(offsets, id * 2);
+        }
+        offsets[id] = out.size();
+        if (!plan.isLeaf()) {
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    private void writeHeader(byte tag, int id, Class<?> type, ComparisonPlan plan) throws IOException {
+        out.writeByte(tag);
+        out.writeInt(id);
+        writeClass(type, plan);
+    }
+
+    /**
+     * Writes the id of a class, preceded by its name and the names of its fields the first time.
+     */
+    private void writeClass(Class<?> type, ComparisonPlan plan) throws IOException {
+        final var knownId = classIds.get(type);
+        if (knownId != null) {
+            out.writeInt(knownId);
+            return;
+        }
+        final var id = classIds.size();
+        classIds.put(type, id);
+        out.writeInt(-id - 1);
+        writeString(type.getName());
+        final var properties = plan.properties();
+        out.writeInt(properties.length);
+        for (var property : properties) {
+            writeString(property.name());
+        }
+    }
+
+    private static Object get(Property property, Object value) {
+        try {
+            return property.get(value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private void writeScalar(Object value) throws IOException {
+        if (value instanceof final Integer integer) {
+            out.writeByte(Snapshot.INT);
+            out.writeInt(integer);
+        } else if (value instanceof final Long longValue) {
+            out.writeByte(Snapshot.LONG);
+            out.writeLong(longValue);
+        } else if (value instanceof final Double doubleValue) {
+            out.writeByte(Snapshot.DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(doubleValue));
+        } else if (value instanceof final Float floatValue) {
+            out.writeByte(Snapshot.FLOAT);
+            out.writeInt(Float.floatToRawIntBits(floatValue));
+        } else if (value instanceof final Boolean booleanValue) {
+            out.writeByte(Snapshot.BOOLEAN);
+            out.writeBoolean(booleanValue);
+        } else if (value instanceof final Character character) {
+            out.writeByte(Snapshot.CHAR);
+            out.writeChar(character);
+        } else if (value instanceof final Short shortValue) {
+            out.writeByte(Snapshot.SHORT);
+            out.writeShort(shortValue);
+        } else if (value instanceof final Byte byteValue) {
+            out.writeByte(Snapshot.BYTE);
+            out.writeByte(byteValue);
+        } else if (value instanceof final String string) {
+            out.writeByte(Snapshot.STRING);
+            writeString(string);
+        } else {
+            out.writeByte(Snapshot.ENUM);
+            writeString(value.getClass().getName());
+            writeString(((Enum<?>) value).name());
+        }
+    }
+
+    private void writePrimitiveArray(Object array) throws IOException {
+        final var length = Array.getLength(array);
+        out.writeByte(Snapshot.PRIMITIVE_ARRAY);
+        writeClass(array.getClass(), ComparisonPlan.of(array.getClass()));
+        out.writeInt(length);
+        if (array instanceof final int[] values) {
+            for (var value : values) {
+                out.writeInt(value);
+            }
+        } else if (array instanceof final long[] values) {
+            for (var value : values) {
+                out.writeLong(value);
+            }
+        } else if (array instanceof final double[] values) {
+            for (var value : values) {
+                out.writeLong(Double.doubleToRawLongBits(value));
+            }
+        } else if (array instanceof final float[] values) {
+            for (var value : values) {
+                out.writeInt(Float.floatToRawIntBits(value));
+            }
+        } else if (array instanceof final boolean[] values) {
+            for (var value : values) {
+                out.writeBoolean(value);
+            }
+        } else if (array instanceof final char[] values) {
+            for (var value : values) {
+                out.writeChar(value);
+            }
+        } else if (array instanceof final short[] values) {
+            for (var value : values) {
+                out.writeShort(value);
+            }
+        } else {
+            out.write((byte[]) array);
+        }
+    }
+
+    private void writeString(String string) throws IOException {
+        final var bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes the offset table, followed by the number of objects and the offset of the table.
+     */
+    private void writeOffsets() throws IOException {
+        final var tableOffset = out.size();
+        for (int i = 0; i < objectCount; i++) {
+            out.writeInt(offsets[i]);
+        }
+        out.writeInt(objectCount);
+        out.writeInt(tableOffset);
+    }
+
+    private static void requireScalar(Object value, String role, Class<?> type) {
+        if (value != null && ComparisonPlan.of(value.getClass()).kind() != ComparisonPlan.Kind.VALUE) {
+            throw new IllegalArgumentException("Only primitives, strings and enums are supported as " + role + " of '"
+                    + type.getName() + "' in a snapshot, but found '" + value.getClass().getName() + "'.");
+        }
+    }
+
+    private static Collection<?> bufferItems(Object iterable) {
+        final var items = new ArrayList<>();
+        for (var item : (Iterable<?>) iterable) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * An object whose items and fields are being written: first the items of an array, then those of a collection or
+     * the entries of a map, then the fields.
+     */
+    private static final class Frame {
+        Object value;
+        int index;
+        int length;
+        Iterator<?> items;
+        boolean scalarItems;
+        boolean entries;
+        Property[] properties;
+        int property;
+    }
+}
@@ -0,0 +1,15 @@
+package mocks;
+
+public class DerivedPrimitiveOnlyObject extends PrimitiveOnlyObject {
+	@SuppressWarnings("unused")
+	private static int instanceCount;
+
+	private final String label;
+
+	public DerivedPrimitiveOnlyObject(int intValue, double doubleValue, boolean booleanValue, char charValue,
+			String label) {
+		super(intValue, doubleValue, booleanValue, charValue);
+		this.label = label;
+		instanceCount++;
+	}
+}
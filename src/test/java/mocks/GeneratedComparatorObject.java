@@ -0,0 +1,18 @@
+package mocks;
+
+import utils.DeepComparable;
+
+@DeepComparable
+public class GeneratedComparatorObject {
+	final int intValue;
+	private final String label;
+
+	public GeneratedComparatorObject(int intValue, String label) {
+		this.intValue = intValue;
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+}
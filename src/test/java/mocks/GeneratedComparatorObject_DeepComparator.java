@@ -0,0 +1,48 @@
+package mocks;
+
+/**
+ * The comparator that the annotation processor in processor/ generates for {@link GeneratedComparatorObject}, counting
+ * how often properties are read.
+ */
+public final class GeneratedComparatorObject_DeepComparator implements utils.DeepComparator<GeneratedComparatorObject> {
+
+	public static int reads;
+
+	@Override
+	public String[] propertyNames() {
+		return new String[] { "intValue", "label" };
+	}
+
+	@Override
+	public Class<?>[] propertyTypes() {
+		return new Class<?>[] { int.class, String.class };
+	}
+
+	@Override
+	public Object get(GeneratedComparatorObject target, int property) {
+		reads++;
+		switch (property) {
+			case 0: return target.intValue;
+			case 1: return target.getLabel();
+			default: throw new IllegalArgumentException("No property " + property);
+		}
+	}
+
+	@Override
+	public boolean primitiveEquals(GeneratedComparatorObject expected, GeneratedComparatorObject actual, int property) {
+		reads++;
+		switch (property) {
+			case 0: return expected.intValue == actual.intValue;
+			default: throw new IllegalArgumentException("No primitive property " + property);
+		}
+	}
+
+	@Override
+	public int primitiveHashCode(GeneratedComparatorObject target, int property) {
+		reads++;
+		switch (property) {
+			case 0: return Integer.hashCode(target.intValue);
+			default: throw new IllegalArgumentException("No primitive property " + property);
+		}
+	}
+}
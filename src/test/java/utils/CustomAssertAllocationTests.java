@@ -0,0 +1,56 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static utils.CustomAssert.assertObjectsEqual;
+import static utils.CustomAssertTests.generateNestedObjects;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertAllocationTests {
+
+	private static final int ITERATIONS = 10_000;
+
+	@Test
+	public void comparingEqualGraphsAllocatesAlmostNothing() {
+		final var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Allocation measurement is not supported.");
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		final var expected = createGraph();
+		final var actual = createGraph();
+		for (int i = 0; i < ITERATIONS; i++) {
+			assertObjectsEqual(expected, actual);
+		}
+
+		final var threadId = Thread.currentThread().getId();
+		final var allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++) {
+			assertObjectsEqual(expected, actual);
+		}
+		final var allocatedPerAssertion = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore)
+				/ ITERATIONS;
+
+		// A few small objects per assertion, independent of the number of compared nodes
+		assertTrue(allocatedPerAssertion < 1024,
+				"Comparing equal graphs allocated " + allocatedPerAssertion + " bytes per assertion.");
+	}
+
+	private static List<Object> createGraph() {
+		final var graph = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			graph.add(new PrimitiveOnlyObject(i, i * 0.5, i % 2 == 0, (char) ('A' + i % 26)));
+		}
+		graph.add(new GenericObjectContainingObject(generateNestedObjects(10, new TreeNodeObject("root"))));
+		graph.add(new GenericObjectContainingObject(new int[] { 1, 2, 3 }));
+		return graph;
+	}
+}
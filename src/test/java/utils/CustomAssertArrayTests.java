@@ -56,6 +56,43 @@ public class CustomAssertArrayTests {
 		}
 	}
 
+	@Test
+	public void arrayOfPrimitivesReportsEveryDifferentIndex() {
+		final var expected = new long[1_000_000];
+		final var actual = new long[1_000_000];
+		expected[3] = 1;
+		expected[999_999] = 2;
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is:
+			// "Expected '[3]' to be '1' but was '0'.
+			// Expected '[999999]' to be '2' but was '0'."
+			assertTrue(e.getMessage().contains("Expected '[3]' to be '1' but was '0'."),
+					"Message should contain first difference.");
+			assertTrue(e.getMessage().contains("Expected '[999999]' to be '2' but was '0'."),
+					"Message should contain last difference.");
+		}
+	}
+
+	@Test
+	public void arrayOfDoublesWithNaNValuesAreEqual() {
+		assertObjectsEqual(new double[] { 1, Double.NaN }, new double[] { 1, Double.NaN });
+	}
+
+	@Test
+	public void matricesOfPrimitivesWithDifferentValuesAreNotEqual() {
+		try {
+			assertObjectsEqual(new int[][] { { 1, 2 }, { 3, 4 } }, new int[][] { { 1, 2 }, { 3, 5 } });
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is: "Expected '[1][1]' to be '4' but was '5'."
+			assertTrue(e.getMessage().contains("Expected '[1][1]' to be '4' but was '5'."),
+					"Message should contain path and both values.");
+		}
+	}
+
 	@Test
 	public void arrayOfPrimitiveOnlyObjectsWithSameValuesAreEqual() {
 		assertObjectsEqual(
@@ -0,0 +1,107 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.DerivedPrimitiveOnlyObject;
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertComparatorTests {
+
+	@Test
+	public void bigDecimalsWithDifferentValuesAreNotEqual() {
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(new BigDecimal("1.10")),
+					new GenericObjectContainingObject(new BigDecimal("1.20")));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to be '1.10' but was '1.20'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void bigDecimalsWithDifferentScalesAreNotEqualByDefault() {
+		try {
+			assertObjectsEqual(new BigDecimal("1.1"), new BigDecimal("1.10"));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to be '1.1' but was '1.10'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void registeredComparatorReplacesBuiltInComparator() {
+		final var options = ComparisonOptions.defaults()
+				.withComparators(ComparatorRegistry.defaults().withComparator(BigDecimal.class, BigDecimal::compareTo));
+
+		assertObjectsEqual(new GenericObjectContainingObject(new BigDecimal("1.1")),
+				new GenericObjectContainingObject(new BigDecimal("1.10")), options);
+	}
+
+	@Test
+	public void valueTypesOfJdkAreComparedByEquals() {
+		final var uuid = UUID.randomUUID();
+		final var expected = List.of(Instant.ofEpochSecond(1), LocalDate.of(2020, 1, 1), uuid, ZoneId.of("UTC"));
+		final var actual = List.of(Instant.ofEpochSecond(2), LocalDate.of(2020, 1, 1), uuid, ZoneId.of("Z"));
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[0]' to be '1970-01-01T00:00:01Z' but was '1970-01-01T00:00:02Z'."
+					+ System.lineSeparator() + "Expected '[3]' to be 'UTC' but was 'Z'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void registeredComparatorAppliesToSubclasses() {
+		final var options = ComparisonOptions.defaults().withComparators(ComparatorRegistry.defaults()
+				.withComparator(PrimitiveOnlyObject.class, (first, second) -> 0));
+
+		// Only the comparator is used, not the fields
+		assertObjectsEqual(new PrimitiveOnlyObject(1, 1.0, true, 'a'), new PrimitiveOnlyObject(2, 2.0, false, 'b'),
+				options);
+		assertObjectsEqual(new DerivedPrimitiveOnlyObject(1, 1.0, true, 'a', "a"),
+				new DerivedPrimitiveOnlyObject(2, 2.0, false, 'b', "b"), options);
+	}
+
+	@Test
+	public void differencesFoundByRegisteredComparatorAreReported() {
+		final var options = ComparisonOptions.defaults().withComparators(ComparatorRegistry.defaults()
+				.withComparator(TreeNodeObject.class, (first, second) -> first.equals(second) ? 0 : 1));
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(new TreeNodeObject("a")),
+					new GenericObjectContainingObject(new TreeNodeObject("b")), options);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().startsWith("Expected '.object' to be 'mocks.TreeNodeObject@"),
+					"Message should contain the objects.");
+		}
+	}
+
+	@Test
+	public void comparatorsCannotBeRegisteredForValues() {
+		assertThrows(IllegalArgumentException.class,
+				() -> ComparatorRegistry.defaults().withComparator(String.class, String::compareTo));
+		assertThrows(IllegalArgumentException.class,
+				() -> ComparatorRegistry.defaults().withComparator(int[].class, (first, second) -> 0));
+	}
+
+	@Test
+	public void comparatorsCannotBeNull() {
+		assertThrows(NullPointerException.class, () -> ComparisonOptions.defaults().withComparators(null));
+	}
+}
@@ -0,0 +1,78 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static utils.CustomAssert.deepEquals;
+import static utils.CustomAssertTests.generateNestedObjects;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertDeepEqualsTests {
+
+	@Test
+	public void twoNullsAreDeepEqual() {
+		assertTrue(deepEquals(null, null));
+	}
+
+	@Test
+	public void nullAndNonNullAreNotDeepEqual() {
+		assertFalse(deepEquals(null, new Object()));
+		assertFalse(deepEquals(new Object(), null));
+	}
+
+	@Test
+	public void differentTypesAreNotDeepEqual() {
+		assertFalse(deepEquals("", new Object()));
+	}
+
+	@Test
+	public void primitiveOnlyObjectsWithSameValuesAreDeepEqual() {
+		assertTrue(deepEquals(new PrimitiveOnlyObject(1, 2, false, 'A'), new PrimitiveOnlyObject(1, 2, false, 'A')));
+	}
+
+	@Test
+	public void primitiveOnlyObjectsWithDifferentValuesAreNotDeepEqual() {
+		assertFalse(deepEquals(new PrimitiveOnlyObject(1, 2, false, 'A'), new PrimitiveOnlyObject(1, 2, false, 'B')));
+	}
+
+	@Test
+	public void nestedObjectsWithSameValuesAreDeepEqual() {
+		assertTrue(deepEquals(generateNestedObjects(3, new TreeNodeObject("Some text")),
+				generateNestedObjects(3, new TreeNodeObject("Some text"))));
+	}
+
+	@Test
+	public void nestedObjectsWithDifferentNestingLevelsAreNotDeepEqual() {
+		assertFalse(deepEquals(generateNestedObjects(3, new TreeNodeObject("Some text")),
+				generateNestedObjects(2, new TreeNodeObject("Some text"))));
+	}
+
+	@Test
+	public void collectionsAreComparedByTheSameRulesAsAssertions() {
+		assertTrue(deepEquals(new GenericObjectContainingObject(List.of(1, 2, 3)),
+				new GenericObjectContainingObject(List.of(1, 2, 3))));
+		assertFalse(deepEquals(new GenericObjectContainingObject(List.of(1, 2, 3)),
+				new GenericObjectContainingObject(List.of(1, 2, 4))));
+		assertTrue(deepEquals(new HashSet<>(List.of('A', 'B')), new HashSet<>(List.of('B', 'A'))));
+		assertFalse(deepEquals(new HashSet<>(List.of('A', 'B')), new HashSet<>(List.of('A', 'C'))));
+		assertFalse(deepEquals(new int[] { 1, 2, 3 }, new int[] { 1, 2 }));
+	}
+
+	@Test
+	public void arraysDifferentEverywhereAreNotDeepEqual() {
+		final var expected = new int[1_000_000][];
+		final var actual = new int[1_000_000][];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = new int[] { i };
+			actual[i] = new int[] { -i - 1 };
+		}
+		assertFalse(deepEquals(expected, actual));
+	}
+}
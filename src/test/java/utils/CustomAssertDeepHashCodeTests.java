@@ -0,0 +1,116 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static utils.CustomAssert.deepEquals;
+import static utils.CustomAssert.deepHashCode;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertDeepHashCodeTests {
+
+	@Test
+	public void deepEqualObjectsHaveSameHashCode() {
+		final var expected = new GenericObjectContainingObject(
+				List.of(new PrimitiveOnlyObject(1, 2.0, true, 'a'), new HashMap<>(Map.of("A", new int[] { 1, 2 }))));
+		final var actual = new GenericObjectContainingObject(
+				List.of(new PrimitiveOnlyObject(1, 2.0, true, 'a'), new HashMap<>(Map.of("A", new int[] { 1, 2 }))));
+
+		assertEquals(deepHashCode(expected), deepHashCode(actual));
+	}
+
+	@Test
+	public void differentFieldsChangeHashCode() {
+		assertNotEquals(deepHashCode(new PrimitiveOnlyObject(1, 2.0, true, 'a')),
+				deepHashCode(new PrimitiveOnlyObject(1, 2.0, true, 'b')));
+	}
+
+	@Test
+	public void primitiveFieldsAreHashedLikeTheirWrappers() {
+		assertEquals(deepHashCode(new GenericObjectContainingObject(new long[] { 1, 2 })),
+				deepHashCode(new GenericObjectContainingObject(new Long[] { 1L, 2L })));
+	}
+
+	@Test
+	public void repeatedItemsOfIterablesComparedAsSetsDoNotChangeHashCode() {
+		// Both are compared as the set [A, B]
+		assertEquals(deepHashCode(new ArrayDeque<>(List.of("A", "A", "B"))),
+				deepHashCode(new ArrayDeque<>(List.of("A", "B", "B"))));
+	}
+
+	@Test
+	public void sharedSubstructuresAndCyclesCanBeHashed() {
+		final var shared = new PrimitiveOnlyObject(1, 2.0, true, 'a');
+		final var parent = new TreeNodeObject("parent");
+		final var child = new TreeNodeObject("child");
+		parent.setChild(child);
+		child.setChild(parent);
+
+		assertEquals(deepHashCode(List.of(shared, shared, parent)),
+				deepHashCode(List.of(new PrimitiveOnlyObject(1, 2.0, true, 'a'),
+						new PrimitiveOnlyObject(1, 2.0, true, 'a'), parent)));
+	}
+
+	@Test
+	public void sortedCollectionsMatchedByTheirComparatorsHaveSameHashCode() {
+		final var expected = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		expected.add("a");
+		final var actual = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		actual.add("A");
+		final var expectedMap = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+		expectedMap.put("a", 1);
+		final var actualMap = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+		actualMap.put("A", 1);
+
+		assertTrue(deepEquals(expected, actual));
+		assertEquals(deepHashCode(expected), deepHashCode(actual));
+		assertTrue(deepEquals(expectedMap, actualMap));
+		assertEquals(deepHashCode(expectedMap), deepHashCode(actualMap));
+	}
+
+	@Test
+	public void cyclesOfDifferentLengthsWithoutDifferencesHaveSameHashCode() {
+		final var single = new TreeNodeObject("node");
+		single.setChild(single);
+		final var first = new TreeNodeObject("node");
+		final var second = new TreeNodeObject("node");
+		first.setChild(second);
+		second.setChild(first);
+
+		assertTrue(deepEquals(single, first));
+		assertEquals(deepHashCode(single), deepHashCode(first));
+		assertEquals(deepHashCode(List.of(single, single)), deepHashCode(List.of(first, second)));
+	}
+
+	@Test
+	public void objectsBeyondMaximumDepthDoNotChangeHashCode() {
+		// A long cycle is cut off by the maximum depth, a short one by revisiting a node
+		final var shortCycle = new TreeNodeObject("node");
+		shortCycle.setChild(shortCycle);
+		final var longCycle = new TreeNodeObject("node");
+		var last = longCycle;
+		for (int i = 0; i < 100; i++) {
+			final var next = new TreeNodeObject("node");
+			last.setChild(next);
+			last = next;
+		}
+		last.setChild(longCycle);
+
+		assertTrue(deepEquals(shortCycle, longCycle));
+		// Hashing the middle of the long cycle first caches fingerprints that must not be used deeper down
+		assertEquals(deepHashCode(List.of(shortCycle, shortCycle)),
+				deepHashCode(List.of(longCycle.getChild().getChild(), longCycle)));
+	}
+}
@@ -0,0 +1,85 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static utils.CustomAssert.assertObjectsEqual;
+import static utils.CustomAssertTests.generateObjectContainingList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import mocks.GenericObjectContainingObject;
+
+public class CustomAssertEventTests {
+
+	private static final ComparisonOptions RECORD_ALL = ComparisonOptions.defaults()
+			.withEventDurationThreshold(Duration.ZERO);
+
+	@Test
+	public void assertionsAboveThresholdAreRecorded() throws IOException {
+		final var events = record(() -> assertThrows(AssertionError.class, () -> assertObjectsEqual(
+				generateObjectContainingList(1), generateObjectContainingList(2), RECORD_ALL)));
+
+		assertEquals(1, events.size());
+		final var event = events.get(0);
+		assertEquals(GenericObjectContainingObject.class.getName(), event.getClass("rootType").getName());
+		assertEquals(5, event.getLong("nodeCount"));
+		assertEquals(1, event.getLong("differenceCount"));
+		assertEquals("sequential", event.getString("mode"));
+	}
+
+	@Test
+	public void parallelAssertionsAreRecordedOnce() throws IOException {
+		final var events = record(() -> assertObjectsEqual(generateObjectContainingList(1), generateObjectContainingList(1),
+				RECORD_ALL.withParallel(true).withParallelThreshold(2)));
+
+		assertEquals(1, events.size());
+		assertEquals(5, events.get(0).getLong("nodeCount"));
+		assertEquals("parallel", events.get(0).getString("mode"));
+	}
+
+	@Test
+	public void largeAssertionsAreRecordedRegardlessOfDuration() throws IOException {
+		final var events = record(() -> assertObjectsEqual(generateObjectContainingList(1), generateObjectContainingList(1),
+				ComparisonOptions.defaults().withEventDurationThreshold(Duration.ofHours(1)).withEventNodeThreshold(5)));
+
+		assertEquals(1, events.size());
+	}
+
+	@Test
+	public void assertionsBelowThresholdsAreNotRecorded() throws IOException {
+		final var events = record(() -> assertObjectsEqual(generateObjectContainingList(1), generateObjectContainingList(1),
+				ComparisonOptions.defaults().withEventDurationThreshold(Duration.ofHours(1))));
+
+		assertTrue(events.isEmpty(), "Fast and small assertions should not be recorded.");
+	}
+
+	private static List<RecordedEvent> record(Runnable assertion) throws IOException {
+		final var file = Files.createTempFile("comparison", ".jfr");
+		try (var recording = new Recording()) {
+			recording.enable("utils.Comparison").withoutThreshold();
+			recording.start();
+			assertion.run();
+			recording.stop();
+			recording.dump(file);
+			final var events = new ArrayList<RecordedEvent>();
+			for (var event : RecordingFile.readAllEvents(file)) {
+				if (event.getEventType().getName().equals("utils.Comparison")) {
+					events.add(event);
+				}
+			}
+			return events;
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertFixtureCacheTests {
+
+	@Test
+	public void repeatedAssertionsAgainstCachedFixtureFindSameDifferences() {
+		final var options = ComparisonOptions.defaults().withFixtureCache(new FixtureCache());
+		final var expected = new GenericObjectContainingObject(new HashSet<>(Set.of("A", "B", "C")));
+
+		assertObjectsEqual(expected, new GenericObjectContainingObject(new HashSet<>(Set.of("C", "B", "A"))), options);
+		try {
+			assertObjectsEqual(expected, new GenericObjectContainingObject(new HashSet<>(Set.of("A", "B", "D"))),
+					options);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to contain same items, however 2 items were different. "
+					+ "Missing: [C], unexpected: [D].", e.getMessage());
+		}
+		assertObjectsEqual(expected, new GenericObjectContainingObject(new HashSet<>(Set.of("B", "C", "A"))), options);
+	}
+
+	@Test
+	public void cachedGroupsAreNotUsedWithOptionsThatGroupItemsDifferently() {
+		final var options = ComparisonOptions.defaults().withUnorderedCollections(true)
+				.withFixtureCache(new FixtureCache());
+		final var expected = new ArrayList<>(List.of(new PrimitiveOnlyObject(1, 1.0, true, 'a'),
+				new PrimitiveOnlyObject(2, 2.0, true, 'b')));
+		final var actual = new ArrayList<>(List.of(new PrimitiveOnlyObject(3, 3.0, true, 'c'),
+				new PrimitiveOnlyObject(4, 4.0, true, 'd')));
+		assertThrows(AssertionError.class, () -> assertObjectsEqual(expected, actual, options));
+
+		// All items are equal by this comparator, so the groups of the first assertion do not apply
+		assertObjectsEqual(expected, actual, options.withComparators(ComparatorRegistry.defaults()
+				.withComparator(PrimitiveOnlyObject.class, (first, second) -> 0)));
+	}
+
+	@Test
+	public void groupsOfUnorderedFixtureAreOnlyFormedOnce() {
+		final var expected = new ArrayList<PrimitiveOnlyObject>();
+		for (int i = 0; i < 1000; i++) {
+			expected.add(new PrimitiveOnlyObject(i % 10, 1.0, true, 'a'));
+		}
+		final var actual = new ArrayList<>(expected);
+		final var firstMetrics = new ComparisonMetrics();
+		final var secondMetrics = new ComparisonMetrics();
+		final var options = ComparisonOptions.defaults().withUnorderedCollections(true)
+				.withFixtureCache(new FixtureCache());
+
+		assertObjectsEqual(expected, actual, options.withMetrics(firstMetrics));
+		assertObjectsEqual(expected, actual, options.withMetrics(secondMetrics));
+
+		// Only the actual items have to be matched with the groups of the expected items again
+		assertTrue(secondMetrics.objectsVisited() < firstMetrics.objectsVisited(),
+				"Expected items should not be compared again.");
+	}
+
+	@Test
+	public void itemsWithoutConsistentHashCodesCanBeCached() {
+		final var options = ComparisonOptions.defaults().withFixtureCache(new FixtureCache());
+		final var expected = new ArrayDeque<>(List.of(new TreeNodeObject("a"), new TreeNodeObject("b")));
+
+		assertObjectsEqual(expected, new ArrayDeque<>(List.of(new TreeNodeObject("b"), new TreeNodeObject("a"))),
+				options);
+		try {
+			assertObjectsEqual(expected,
+					new ArrayDeque<>(List.of(new TreeNodeObject("a"), new TreeNodeObject("c"))), options);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().contains("2 items were different"), "Message should contain both items.");
+		}
+	}
+
+	@Test
+	public void leastRecentlyUsedFixturesAreDroppedBeyondMaximumSize() {
+		final var cache = new FixtureCache(2);
+		final var options = ComparisonOptions.defaults().withFixtureCache(cache);
+		// The fixtures are kept reachable, so that none of them is dropped because it was garbage collected
+		final var fixtures = new ArrayList<Set<Integer>>();
+		for (int i = 0; i < 3; i++) {
+			fixtures.add(new HashSet<>(Set.of(i)));
+			assertObjectsEqual(fixtures.get(i), new HashSet<>(Set.of(i)), options);
+		}
+
+		assertEquals(2, cache.size());
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void maximumSizeHasToBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> new FixtureCache(0));
+	}
+}
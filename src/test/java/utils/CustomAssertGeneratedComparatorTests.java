@@ -0,0 +1,49 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GeneratedComparatorObject;
+import mocks.GeneratedComparatorObject_DeepComparator;
+
+public class CustomAssertGeneratedComparatorTests {
+
+	@Test
+	public void propertiesAreReadThroughGeneratedComparator() {
+		final var readsBefore = GeneratedComparatorObject_DeepComparator.reads;
+
+		assertObjectsEqual(new GeneratedComparatorObject(1, "a"), new GeneratedComparatorObject(1, "a"));
+
+		assertTrue(GeneratedComparatorObject_DeepComparator.reads > readsBefore,
+				"Generated comparator should have been used.");
+	}
+
+	@Test
+	public void differencesAreReportedByPropertyName() {
+		try {
+			assertObjectsEqual(new GeneratedComparatorObject(1, "a"), new GeneratedComparatorObject(2, "b"));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.intValue' to be '1' but was '2'." + System.lineSeparator()
+					+ "Expected '.label' to be 'a' but was 'b'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void annotatedTypesWithoutGeneratedComparatorAreComparedThroughReflection() {
+		try {
+			assertObjectsEqual(new NotGenerated(1), new NotGenerated(2));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.value' to be '1' but was '2'.", e.getMessage());
+		}
+	}
+
+	@DeepComparable
+	private record NotGenerated(int value) {
+	}
+}
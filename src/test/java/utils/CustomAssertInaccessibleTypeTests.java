@@ -0,0 +1,94 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertMatchesSnapshot;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import mocks.GenericObjectContainingObject;
+
+public class CustomAssertInaccessibleTypeTests {
+
+	@Test
+	public void inaccessibleTypesAreComparedByEqualsByDefault() {
+		assertObjectsEqual(new GenericObjectContainingObject(Optional.of("a")),
+				new GenericObjectContainingObject(Optional.of("a")));
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(Optional.of("a")),
+					new GenericObjectContainingObject(Optional.of("b")));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to be 'Optional[a]' but was 'Optional[b]'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void inaccessibleTypesWithoutEqualsAreSkippedByDefault() {
+		assertObjectsEqual(new Holder(), new Holder());
+	}
+
+	@Test
+	public void inaccessibleTypesWithoutEqualsCanBeRecordedInSnapshots(@TempDir Path directory) {
+		final var snapshot = directory.resolve("holder.snapshot");
+		assertMatchesSnapshot(new Holder(), snapshot);
+
+		assertMatchesSnapshot(new Holder(), snapshot);
+	}
+
+	@Test
+	public void inaccessibleTypesCanBeSkipped() {
+		assertObjectsEqual(new GenericObjectContainingObject(new AtomicInteger(1)),
+				new GenericObjectContainingObject(new AtomicInteger(2)),
+				ComparisonOptions.defaults().withInaccessibleTypes(InaccessibleTypePolicy.SKIP));
+	}
+
+	@Test
+	public void inaccessibleTypesCanBeReported() {
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(new AtomicInteger(1)),
+					new GenericObjectContainingObject(new AtomicInteger(1)),
+					ComparisonOptions.defaults().withInaccessibleTypes(InaccessibleTypePolicy.FAIL));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to be compared, but the fields of "
+					+ "'java.util.concurrent.atomic.AtomicInteger' are not accessible. Register a comparator for it or "
+					+ "open its package.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void inaccessibleTypesWithoutEqualsAreReportedIfRequested() {
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(new Object()),
+					new GenericObjectContainingObject(new Object()),
+					ComparisonOptions.defaults().withInaccessibleTypes(InaccessibleTypePolicy.FAIL));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to be compared, but the fields of 'java.lang.Object' are not accessible. "
+					+ "Register a comparator for it or open its package.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void typesWithComparatorAreNotAffected() {
+		assertObjectsEqual(new GenericObjectContainingObject(new AtomicInteger(1)),
+				new GenericObjectContainingObject(new AtomicInteger(1)),
+				ComparisonOptions.defaults().withInaccessibleTypes(InaccessibleTypePolicy.FAIL)
+						.withComparators(ComparatorRegistry.defaults().withComparator(AtomicInteger.class,
+								(first, second) -> Integer.compare(first.get(), second.get()))));
+	}
+
+	@SuppressWarnings("unused")
+	private static class Holder {
+		private final Object lock = new Object();
+		private final AtomicInteger counter = new AtomicInteger(1);
+		private final StringBuilder log = new StringBuilder("started");
+	}
+}
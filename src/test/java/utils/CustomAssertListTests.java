@@ -65,6 +65,41 @@ public class CustomAssertListTests {
 		}
 	}
 
+	@Test
+	public void listsWithNullsAtSamePositionsAreCompared() {
+		try {
+			assertObjectsEqual(Arrays.asList(null, 1, 2), Arrays.asList(null, 1, 3));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is: "Expected '[2]' to be '2' but was '3'."
+			assertTrue(e.getMessage().contains("Expected '[2]' to be '2' but was '3'."),
+					"Message should contain path and both values.");
+		}
+	}
+
+	@Test
+	public void linkedListsOfPrimitivesWithDifferentValuesAreNotEqual() {
+		try {
+			assertObjectsEqual(new LinkedList<>(List.of(1, 2, 3)), new LinkedList<>(List.of(1, 5, 3)));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is: "Expected '[1]' to be '2' but was '5'."
+			assertTrue(e.getMessage().contains("Expected '[1]' to be '2' but was '5'."),
+					"Message should contain path and both values.");
+		}
+	}
+
+	@Test
+	public void largeLinkedListsWithSameValuesAreEqual() {
+		final var expected = new LinkedList<Integer>();
+		final var actual = new LinkedList<Integer>();
+		for (int i = 0; i < 50_000; i++) {
+			expected.add(i);
+			actual.add(i);
+		}
+		assertObjectsEqual(expected, actual);
+	}
+
 	@Test
 	public void listOfPrimitiveOnlyObjectsWithSameValuesAreEqual() {
 		final var expected = new ArrayList<PrimitiveOnlyObject>();
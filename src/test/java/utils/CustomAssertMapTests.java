@@ -0,0 +1,135 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+
+public class CustomAssertMapTests {
+
+	@Test
+	public void mapsWithSameEntriesAreEqual() {
+		assertObjectsEqual(new HashMap<>(Map.of("A", 1, "B", 2)), new HashMap<>(Map.of("B", 2, "A", 1)));
+	}
+
+	@Test
+	public void mapsWithDifferentCapacitiesAreEqual() {
+		final var expected = new HashMap<String, Integer>(1024);
+		expected.put("A", 1);
+		final var actual = new HashMap<String, Integer>(2);
+		actual.put("A", 1);
+
+		assertObjectsEqual(new GenericObjectContainingObject(expected), new GenericObjectContainingObject(actual));
+	}
+
+	@Test
+	public void mapsWithDifferentValuesAreNotEqual() {
+		final var expected = new GenericObjectContainingObject(new HashMap<>(Map.of("EURUSD", 1.1, "GBPUSD", 1.3)));
+		final var actual = new GenericObjectContainingObject(new HashMap<>(Map.of("EURUSD", 1.2, "GBPUSD", 1.3)));
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object[EURUSD]' to be '1.1' but was '1.2'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void valuesOfMapsAreComparedDeeply() {
+		final var expected = new HashMap<Integer, Object>();
+		expected.put(1, new PrimitiveOnlyObject(1, 1.0, true, 'a'));
+		final var actual = new HashMap<Integer, Object>();
+		actual.put(1, new PrimitiveOnlyObject(1, 1.0, true, 'b'));
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[1].charValue' to be 'a' but was 'b'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void missingAndUnexpectedKeysAreReported() {
+		final var expected = new LinkedHashMap<String, Integer>();
+		expected.put("A", 1);
+		expected.put("B", 2);
+		final var actual = new LinkedHashMap<String, Integer>();
+		actual.put("A", 1);
+		actual.put("C", 3);
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain key 'B' but it was missing." + System.lineSeparator()
+					+ "Expected '' to not contain key 'C' but it was present.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void nullKeysAndValuesAreCompared() {
+		final var expected = new HashMap<String, String>();
+		expected.put(null, "A");
+		expected.put("B", null);
+		final var actual = new HashMap<String, String>();
+		actual.put(null, "A");
+		actual.put("B", "B");
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[B]' to be null but was not null.", e.getMessage());
+		}
+		actual.put("B", null);
+		assertObjectsEqual(expected, actual);
+	}
+
+	@Test
+	public void sortedMapsAreComparedInKeyOrder() {
+		final var expected = new TreeMap<>(Map.of(1, "A", 2, "B", 4, "D"));
+		final var actual = new TreeMap<>(Map.of(1, "X", 3, "C", 4, "D"));
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[1]' to be 'A' but was 'X'." + System.lineSeparator()
+					+ "Expected '' to contain key '2' but it was missing." + System.lineSeparator()
+					+ "Expected '' to not contain key '3' but it was present.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void sortedMapsWithDifferentOrdersAreMatchedByKey() {
+		final var expected = new TreeMap<Integer, String>(Comparator.reverseOrder());
+		expected.putAll(Map.of(1, "A", 2, "B"));
+		final var actual = new TreeMap<>(Map.of(1, "A", 2, "B"));
+
+		assertObjectsEqual(new GenericObjectContainingObject(expected), new GenericObjectContainingObject(actual));
+	}
+
+	@Test
+	public void largeMapsWithDifferentValuesAreNotEqual() {
+		final var expected = new HashMap<Integer, Integer>();
+		final var actual = new HashMap<Integer, Integer>();
+		for (int i = 0; i < 100_000; i++) {
+			expected.put(i, i);
+			actual.put(i, i == 500 ? -1 : i);
+		}
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().contains("[500]"), "Message should contain the key of the different value.");
+		}
+	}
+}
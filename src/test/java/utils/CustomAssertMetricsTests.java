@@ -0,0 +1,97 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static utils.CustomAssert.assertObjectsEqual;
+import static utils.CustomAssertTests.generateNestedObjectsIteratively;
+import static utils.CustomAssertTests.generateObjectContainingList;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertMetricsTests {
+
+	@Test
+	public void workOfComparisonIsCounted() {
+		final var metrics = new ComparisonMetrics();
+
+		assertObjectsEqual(generateObjectContainingList(3), generateObjectContainingList(3), ComparisonOptions.defaults().withMetrics(metrics));
+
+		// The container, the list and the three items
+		assertEquals(5, metrics.objectsVisited());
+		// The field of the container and four fields per item
+		assertEquals(13, metrics.fieldsRead());
+		assertEquals(3, metrics.elementsCompared());
+		assertEquals(0, metrics.equalsCalls());
+	}
+
+	@Test
+	public void equalsCallsAreCounted() {
+		final var metrics = new ComparisonMetrics();
+
+		assertObjectsEqual(List.of("A", "B"), List.of("A", "B"), ComparisonOptions.defaults().withMetrics(metrics));
+
+		assertEquals(2, metrics.equalsCalls());
+	}
+
+	@Test
+	public void metricsAddUpOverAssertions() {
+		final var metrics = new ComparisonMetrics();
+		final var options = ComparisonOptions.defaults().withMetrics(metrics);
+
+		assertObjectsEqual(generateObjectContainingList(3), generateObjectContainingList(3), options);
+		assertThrows(AssertionError.class, () -> assertObjectsEqual(generateObjectContainingList(3),
+				new GenericObjectContainingObject(null), options));
+
+		assertEquals(6, metrics.objectsVisited());
+		metrics.reset();
+		assertEquals(0, metrics.objectsVisited());
+		assertTrue(metrics.timePerType().isEmpty(), "Reset should drop the times.");
+	}
+
+	@Test
+	public void timeIsMeasuredPerType() {
+		final var metrics = new ComparisonMetrics();
+
+		assertObjectsEqual(generateObjectContainingList(3), generateObjectContainingList(3), ComparisonOptions.defaults().withMetrics(metrics));
+
+		final var types = metrics.timePerType().keySet();
+		assertTrue(types.contains(GenericObjectContainingObject.class), "Time of the container should be measured.");
+		assertTrue(types.contains(PrimitiveOnlyObject.class), "Time of the items should be measured.");
+	}
+
+	@Test
+	public void timeOfReferencedObjectsIsNotAddedToTheirReferrers() {
+		final var metrics = new ComparisonMetrics();
+		final var options = ComparisonOptions.defaults().withMetrics(metrics);
+		final var expected = generateNestedObjectsIteratively(5_000, new TreeNodeObject("root"));
+		final var actual = generateNestedObjectsIteratively(5_000, new TreeNodeObject("root"));
+
+		final var startNanos = System.nanoTime();
+		assertObjectsEqual(expected, actual, options);
+		final var elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+		// Each node only accounts for itself, so the chain cannot take longer than the whole comparison
+		final var time = metrics.timePerType().get(TreeNodeObject.class);
+		assertTrue(time.compareTo(elapsed) <= 0, "Time of the chain " + time + " should not exceed " + elapsed + ".");
+	}
+
+	@Test
+	public void chunksOfParallelComparisonsAreCounted() {
+		final var metrics = new ComparisonMetrics();
+
+		assertObjectsEqual(generateObjectContainingList(3), generateObjectContainingList(3), ComparisonOptions.defaults().withMetrics(metrics)
+				.withParallel(true).withParallelThreshold(2));
+
+		assertEquals(5, metrics.objectsVisited());
+		assertEquals(13, metrics.fieldsRead());
+		assertEquals(3, metrics.elementsCompared());
+	}
+}
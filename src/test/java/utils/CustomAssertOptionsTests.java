@@ -0,0 +1,125 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+public class CustomAssertOptionsTests {
+
+	@Test
+	public void onlyMaxDifferencesAreDescribed() {
+		try {
+			assertObjectsEqual(new int[] { 1, 2, 3, 4, 5 }, new int[] { 0, 0, 0, 0, 0 },
+					ComparisonOptions.defaults().withMaxDifferences(2));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is:
+			// "Expected '[0]' to be '1' but was '0'.
+			// Expected '[1]' to be '2' but was '0'.
+			// ...and 3 more differences."
+			assertTrue(e.getMessage().contains("[0]") && e.getMessage().contains("[1]"),
+					"Message should contain the first differences.");
+			assertFalse(e.getMessage().contains("[2]"), "Message should not contain further differences.");
+			assertTrue(e.getMessage().endsWith("...and 3 more differences."),
+					"Message should summarize further differences.");
+		}
+	}
+
+	@Test
+	public void comparisonStopsAfterMaxDifferencesIfRequested() {
+		try {
+			assertObjectsEqual(new int[] { 1, 2, 3, 4, 5 }, new int[] { 0, 0, 0, 0, 0 },
+					ComparisonOptions.defaults().withMaxDifferences(2).withStopAtMaxDifferences(true));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is:
+			// "Expected '[0]' to be '1' but was '0'.
+			// Expected '[1]' to be '2' but was '0'.
+			// ...and at least 1 more difference."
+			assertTrue(e.getMessage().contains("[0]") && e.getMessage().contains("[1]"),
+					"Message should contain the first differences.");
+			assertTrue(e.getMessage().endsWith("...and at least 1 more difference."),
+					"Message should mention that there are further differences.");
+		}
+	}
+
+	@Test
+	public void differencesUpToMaxDifferencesAreNotSummarized() {
+		try {
+			assertObjectsEqual(new int[] { 1, 2 }, new int[] { 0, 0 },
+					ComparisonOptions.defaults().withMaxDifferences(2).withStopAtMaxDifferences(true));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is:
+			// "Expected '[0]' to be '1' but was '0'.
+			// Expected '[1]' to be '2' but was '0'."
+			assertTrue(e.getMessage().endsWith("Expected '[1]' to be '2' but was '0'."),
+					"Message should end with the last difference.");
+		}
+	}
+
+	@Test
+	public void differencesAreLimitedByDefault() {
+		final var expected = new long[ComparisonOptions.DEFAULT_MAX_DIFFERENCES + 500];
+		final var actual = new long[expected.length];
+		Arrays.fill(actual, 1);
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().endsWith("...and 500 more differences."),
+					"Message should summarize further differences.");
+		}
+	}
+
+	@Test
+	public void itemsOfSetDifferencesAreLimitedByMaxDifferences() {
+		final var expected = new HashSet<Integer>();
+		final var actual = new HashSet<Integer>();
+		for (int i = 0; i < 200_000; i++) {
+			expected.add(i);
+			actual.add(-i - 1);
+		}
+		try {
+			assertObjectsEqual(expected, actual, ComparisonOptions.defaults().withMaxDifferences(3));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().startsWith("Expected '' to contain same items, however 400000 items were "
+					+ "different. Missing: ["), "Message should describe the difference.");
+			assertTrue(e.getMessage().endsWith(", ...and 199997 more], unexpected: [...and 200000 more]."),
+					"Message should only contain three items.");
+		}
+	}
+
+	@Test
+	public void itemsOfUnorderedDifferencesAreLimitedByMaxDifferences() {
+		final var expected = new ArrayList<String>();
+		final var actual = new ArrayList<String>();
+		for (int i = 0; i < 1_000; i++) {
+			expected.add("a");
+			actual.add(i < 500 ? "b" + i : "c");
+		}
+		try {
+			assertObjectsEqual(expected, actual,
+					ComparisonOptions.defaults().withUnorderedCollections(true).withMaxDifferences(2));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain same items in any order, however 2000 items were different. "
+					+ "Missing: [a (1000 times)], unexpected: [b0, ...and 999 more].", e.getMessage());
+		}
+	}
+
+	@Test
+	public void maxDifferencesMustBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> ComparisonOptions.defaults().withMaxDifferences(0));
+	}
+}
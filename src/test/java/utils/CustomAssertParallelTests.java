@@ -0,0 +1,204 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertParallelTests {
+
+	private static final ComparisonOptions PARALLEL = ComparisonOptions.defaults().withParallel(true)
+			.withParallelThreshold(2);
+
+	@Test
+	public void equalGraphsPassInParallel() {
+		assertObjectsEqual(generateObjects(1000, -1), generateObjects(1000, -1), PARALLEL);
+	}
+
+	@Test
+	public void differencesAreReportedInTheSameOrderAsSequentially() {
+		final var expected = generateObjects(1000, -1);
+		final var actual = generateObjects(1000, 7);
+
+		assertEquals(describeDifferences(expected, actual, ComparisonOptions.defaults()),
+				describeDifferences(expected, actual, PARALLEL));
+	}
+
+	@Test
+	public void nestedArraysAndListsAreComparedInParallel() {
+		final var expected = new GenericObjectContainingObject[300];
+		final var actual = new GenericObjectContainingObject[300];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = new GenericObjectContainingObject(generateObjects(20, -1));
+			actual[i] = new GenericObjectContainingObject(generateObjects(20, i % 5 == 0 ? 3 : -1));
+		}
+
+		assertEquals(describeDifferences(expected, actual, ComparisonOptions.defaults()),
+				describeDifferences(expected, actual, PARALLEL));
+	}
+
+	@Test
+	public void maxDifferencesAreAppliedAcrossChunks() {
+		final var expected = generateObjects(1000, -1);
+		final var actual = generateObjects(1000, 1);
+		final var options = ComparisonOptions.defaults().withMaxDifferences(10);
+
+		assertEquals(describeDifferences(expected, actual, options),
+				describeDifferences(expected, actual, options.withParallel(true).withParallelThreshold(2)));
+		assertEquals(describeDifferences(expected, actual, options.withStopAtMaxDifferences(true)),
+				describeDifferences(expected, actual,
+						options.withStopAtMaxDifferences(true).withParallel(true).withParallelThreshold(2)));
+	}
+
+	@Test
+	public void cyclesBackIntoTheSplitCollectionAreDetected() {
+		final var expectedItems = new ArrayList<Object>();
+		final var expected = new GenericObjectContainingObject(expectedItems);
+		final var actualItems = new ArrayList<Object>();
+		final var actual = new GenericObjectContainingObject(actualItems);
+		for (int i = 0; i < 100; i++) {
+			expectedItems.add(new GenericObjectContainingObject(expected));
+			actualItems.add(new GenericObjectContainingObject(i == 42 ? new GenericObjectContainingObject(null) : actual));
+		}
+
+		assertEquals(describeDifferences(expected, actual, ComparisonOptions.defaults()),
+				describeDifferences(expected, actual, PARALLEL));
+	}
+
+	@Test
+	public void substructuresSharedBetweenChunksAreReportedOnce() {
+		final var expectedNode = new TreeNodeObject("expected");
+		final var actualNode = new TreeNodeObject("actual");
+		final var expectedItems = new ArrayList<Object>();
+		final var actualItems = new ArrayList<Object>();
+		for (int i = 0; i < 100; i++) {
+			expectedItems.add(new GenericObjectContainingObject(expectedNode));
+			actualItems.add(new GenericObjectContainingObject(actualNode));
+		}
+
+		final var message = describeDifferences(expectedItems, actualItems, PARALLEL);
+		assertEquals(describeDifferences(expectedItems, actualItems, ComparisonOptions.defaults()), message);
+		assertEquals(1, message.lines().filter(line -> line.contains(".name")).count());
+	}
+
+	@Test
+	public void substructuresSharedWithOtherFieldsAreReportedOnce() {
+		final var expectedNode = new TreeNodeObject("expected");
+		final var actualNode = new TreeNodeObject("actual");
+		final var expectedItems = new ArrayList<Object>();
+		final var actualItems = new ArrayList<Object>();
+		for (int i = 0; i < 100; i++) {
+			expectedItems.add(new GenericObjectContainingObject(i % 10 == 0 ? expectedNode : new TreeNodeObject("a")));
+			actualItems.add(new GenericObjectContainingObject(i % 10 == 0 ? actualNode : new TreeNodeObject("b")));
+		}
+		// The shared nodes are compared before and after the items
+		final var expected = List.of(expectedNode, expectedItems, expectedNode);
+		final var actual = List.of(new TreeNodeObject("other"), actualItems, actualNode);
+
+		for (final var maxDifferences : new int[] { 5, 50, 1000 }) {
+			final var options = ComparisonOptions.defaults().withMaxDifferences(maxDifferences);
+			assertEquals(describeDifferences(expected, actual, options),
+					describeDifferences(expected, actual, options.withParallel(true).withParallelThreshold(2)));
+			assertEquals(describeDifferences(expected, actual, options.withStopAtMaxDifferences(true)),
+					describeDifferences(expected, actual,
+							options.withStopAtMaxDifferences(true).withParallel(true).withParallelThreshold(2)));
+		}
+	}
+
+	@Test
+	public void maxDifferencesAreAppliedAfterLeavingOutSharedSubstructures() {
+		final var sharedExpected = new ArrayList<Object>();
+		final var sharedActual = new ArrayList<Object>();
+		for (int i = 0; i < 10; i++) {
+			sharedExpected.add(new TreeNodeObject("expected" + i));
+			sharedActual.add(new TreeNodeObject("actual" + i));
+		}
+		// The second chunk exceeds the maximum with the differences of the nodes the first chunk compared
+		final var expectedItems = new ArrayList<>(sharedExpected);
+		final var actualItems = new ArrayList<>(sharedActual);
+		for (int i = 0; i < 3; i++) {
+			expectedItems.add(new TreeNodeObject("a"));
+			actualItems.add(new TreeNodeObject("b"));
+		}
+		final var expected = List.of(sharedExpected, expectedItems);
+		final var actual = List.of(sharedActual, actualItems);
+		final var options = ComparisonOptions.defaults().withMaxDifferences(12);
+
+		assertEquals(describeDifferences(expected, actual, options),
+				describeDifferences(expected, actual, options.withParallel(true).withParallelThreshold(2)));
+	}
+
+	@Test
+	public void iteratorsSharedBetweenChunksAreReadOnce() {
+		for (int run = 0; run < 50; run++) {
+			final var expectedIterator = List.of(1, 2, 3).iterator();
+			final var actualIterator = List.of(1, 2, 4).iterator();
+			final var expectedItems = new ArrayList<Object>();
+			final var actualItems = new ArrayList<Object>();
+			for (int i = 0; i < 64; i++) {
+				expectedItems.add(new GenericObjectContainingObject(expectedIterator));
+				actualItems.add(new GenericObjectContainingObject(actualIterator));
+			}
+
+			assertEquals("Expected '[0].object[2]' to be '3' but was '4'.",
+					describeDifferences(expectedItems, actualItems, PARALLEL));
+		}
+	}
+
+	@Test
+	public void streamsInChunksAreComparedLikeSequentially() {
+		final var options = ComparisonOptions.defaults().withMaxDifferences(3);
+		assertEquals(describeDifferences(generateStreamHolders(), generateStreamHolders(3), options),
+				describeDifferences(generateStreamHolders(), generateStreamHolders(3),
+						options.withParallel(true).withParallelThreshold(2)));
+	}
+
+	@Test
+	public void thresholdHasToBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> ComparisonOptions.defaults().withParallelThreshold(0));
+	}
+
+	/**
+	 * Generates a list of objects in which every object at an index divisible by the given divisor differs, or none
+	 * if the divisor is negative.
+	 */
+	private static List<PrimitiveOnlyObject> generateObjects(int count, int differentEvery) {
+		final var objects = new ArrayList<PrimitiveOnlyObject>(count);
+		for (int i = 0; i < count; i++) {
+			final var different = differentEvery > 0 && i % differentEvery == 0;
+			objects.add(new PrimitiveOnlyObject(i, different ? -i : i, different, 'a'));
+		}
+		return objects;
+	}
+
+	/**
+	 * Generates holders of lists, every third of which differs, alternating with holders of a single shared stream
+	 * whose item at the given index differs. Nothing differs if the index is negative.
+	 */
+	private static List<Object> generateStreamHolders(int differentIndex) {
+		final var stream = IntStream.range(0, 5).map(i -> i == differentIndex ? -i : i);
+		final var holders = new ArrayList<Object>();
+		for (int i = 0; i < 100; i++) {
+			holders.add(new GenericObjectContainingObject(differentIndex >= 0 && i % 3 == 0 ? List.of(-i) : List.of(i)));
+			holders.add(new GenericObjectContainingObject(stream));
+		}
+		return holders;
+	}
+
+	private static List<Object> generateStreamHolders() {
+		return generateStreamHolders(-1);
+	}
+
+	private static String describeDifferences(Object expected, Object actual, ComparisonOptions options) {
+		return assertThrows(AssertionError.class, () -> assertObjectsEqual(expected, actual, options)).getMessage();
+	}
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.nio.file.attribute.GroupPrincipal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.net.UnixDomainPrincipal;
+import mocks.PrimitiveOnlyRecord;
+
+public class CustomAssertRecordTests {
+
+	@Test
+	public void differencesAreReportedByComponentName() {
+		try {
+			assertObjectsEqual(new Line(new PrimitiveOnlyRecord(1, 1.5, true, 'a'), List.of("a")),
+					new Line(new PrimitiveOnlyRecord(1, 2.5, true, 'b'), List.of("b")));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.start.doubleValue' to be '1.5' but was '2.5'." + System.lineSeparator()
+					+ "Expected '.start.charValue' to be 'a' but was 'b'." + System.lineSeparator()
+					+ "Expected '.labels[0]' to be 'a' but was 'b'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void componentsAreReadThroughTheirAccessors() {
+		assertObjectsEqual(new CaseInsensitiveName("Alice"), new CaseInsensitiveName("ALICE"));
+	}
+
+	@Test
+	public void recordsInPackagesThatAreNotOpenAreComparedByComponents() {
+		final var options = ComparisonOptions.defaults().withInaccessibleTypes(InaccessibleTypePolicy.FAIL);
+		final var staff = new Group("staff");
+
+		assertObjectsEqual(new UnixDomainPrincipal(new Group("alice"), staff),
+				new UnixDomainPrincipal(new Group("alice"), staff), options);
+		try {
+			assertObjectsEqual(new UnixDomainPrincipal(new Group("alice"), staff),
+					new UnixDomainPrincipal(new Group("bob"), staff), options);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.user.name' to be 'alice' but was 'bob'.", e.getMessage());
+		}
+	}
+
+	private record Line(PrimitiveOnlyRecord start, List<String> labels) {
+	}
+
+	private record CaseInsensitiveName(String name) {
+		@Override
+		public String name() {
+			return name.toLowerCase();
+		}
+	}
+
+	private record Group(String name) implements GroupPrincipal {
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
@@ -11,8 +12,13 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static utils.CustomAssert.assertObjectsEqual;
 import static utils.CustomAssertTests.generateNestedObjects;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 public class CustomAssertSetTests {
 
@@ -41,13 +47,31 @@ public class CustomAssertSetTests {
 			assertObjectsEqual(new HashSet<>(List.of(1, 2, 3)), new HashSet<>(List.of(1, 2, 4)));
 			fail("Should have thrown an exception");
 		} catch (AssertionError e) {
-			// Message is: "Expected '' to contain same items, however 2 items were different: [3, 4]."
+			// Message is: "Expected '' to contain same items, however 2 items were different. Missing: [3], unexpected: [4]."
 			assertTrue(e.getMessage().contains("2"), "Message should contain number of different elements");
 			assertTrue(e.getMessage().contains("3") && e.getMessage().contains("4"),
 					"Message should contain both values.");
 		}
 	}
 
+	@Test
+	public void largeSetsOfPrimitivesWithDifferentValuesAreNotEqual() {
+		final var expected = new HashSet<Integer>();
+		final var actual = new HashSet<Integer>();
+		for (int i = 0; i < 100_000; i++) {
+			expected.add(i);
+			actual.add(i == 500 ? -1 : i);
+		}
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			// Message is: "Expected '' to contain same items, however 2 items were different. Missing: [500], unexpected: [-1]."
+			assertTrue(e.getMessage().contains("2 items were different. Missing: [500], unexpected: [-1]."),
+					"Message should contain both values.");
+		}
+	}
+
 	@Test
 	public void setOfPrimitiveOnlyObjectsWithSameValuesAreEqual() {
 		final var expected = new HashSet<PrimitiveOnlyObject>();
@@ -70,7 +94,7 @@ public class CustomAssertSetTests {
 							new PrimitiveOnlyObject(1, 2, false, 'B'))));
 			fail("Should have thrown an exception");
 		} catch (AssertionError e) {
-			// Message is: "Expected '' to contain same items, however 1 items were different: [mocks.PrimitiveOnlyObject@80169cf]."
+			// Message is: "Expected '' to contain same items, however 1 items were different. Missing: [], unexpected: [mocks.PrimitiveOnlyObject@80169cf]."
 			assertTrue(e.getMessage().contains("1 items"), "Message should correctly identify the number of missing items");
 		}
 	}
@@ -94,7 +118,7 @@ public class CustomAssertSetTests {
 							generateNestedObjects(2, new TreeNodeObject("Some text 2")))));
 			fail("Should have thrown an exception");
 		} catch (AssertionError e) {
-			// Message is: "Expected '' to contain same items, however 2 items were different: [mocks.TreeNodeObject@73d4cc9e, mocks.TreeNodeObject@5427c60c]."
+			// Message is: "Expected '' to contain same items, however 2 items were different. Missing: [mocks.TreeNodeObject@73d4cc9e], unexpected: [mocks.TreeNodeObject@5427c60c]."
 			assertTrue(e.getMessage().contains("2 items"), "Message should correctly identify the number of missing items");
 		}
 	}
@@ -109,7 +133,7 @@ public class CustomAssertSetTests {
 							generateNestedObjects(3, new TreeNodeObject("Some text 1")))));
 			fail("Should have thrown an exception");
 		} catch (AssertionError e) {
-			// Message is: "Expected '' to contain same items, however 2 items were different: [mocks.TreeNodeObject@73d4cc9e, mocks.TreeNodeObject@5427c60c]."
+			// Message is: "Expected '' to contain same items, however 2 items were different. Missing: [mocks.TreeNodeObject@73d4cc9e], unexpected: [mocks.TreeNodeObject@5427c60c]."
 			assertTrue(e.getMessage().contains("2 items"), "Message should correctly identify the number of missing items");
 		}
 	}
@@ -141,7 +165,7 @@ public class CustomAssertSetTests {
 					new GenericObjectContainingObject(new HashSet<>(List.of(1, 2, 4))));
 			fail("Should have thrown an exception");
 		} catch (AssertionError e) {
-			// Message is: "Expected '.object' to contain same items, however 2 items were different: [3, 4]."
+			// Message is: "Expected '.object' to contain same items, however 2 items were different. Missing: [3], unexpected: [4]."
 			assertTrue(e.getMessage().contains(".object"), "Message should contain path");
 			assertTrue(e.getMessage().contains("3") && e.getMessage().contains("4"),
 					"Message should contain both values.");
@@ -167,10 +191,69 @@ public class CustomAssertSetTests {
 							new HashSet<>(List.of(new PrimitiveOnlyObject(3, 4, false, 'B')))));
 			fail("Should have thrown an exception");
 		} catch (AssertionError e) {
-			// Message is: "Expected '.object' to contain same items, however 2 items were different: [mocks.PrimitiveOnlyObject@382db087, mocks.PrimitiveOnlyObject@73d4cc9e]."
+			// Message is: "Expected '.object' to contain same items, however 2 items were different. Missing: [mocks.PrimitiveOnlyObject@382db087], unexpected: [mocks.PrimitiveOnlyObject@73d4cc9e]."
 			assertTrue(e.getMessage().contains(".object"), "Message should contain path");
 			assertTrue(e.getMessage().contains("2"),
 					"Message should contain both values.");
 		}
 	}
+
+	@Test
+	public void sortedSetsWithDifferentValuesReportMissingAndUnexpectedItems() {
+		try {
+			assertObjectsEqual(new TreeSet<>(List.of(1, 2, 3, 5)), new TreeSet<>(List.of(0, 2, 3, 4)));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain same items, however 4 items were different. "
+					+ "Missing: [1, 5], unexpected: [0, 4].", e.getMessage());
+		}
+	}
+
+	@Test
+	public void sortedSetsWithDifferentOrdersAreComparedAsSets() {
+		final var expected = new TreeSet<Integer>(Comparator.reverseOrder());
+		expected.addAll(List.of(1, 2, 3));
+
+		assertObjectsEqual(new GenericObjectContainingObject(expected),
+				new GenericObjectContainingObject(new TreeSet<>(List.of(3, 2, 1))));
+	}
+
+	@Test
+	public void largeSortedSetsWithDifferentValuesAreNotEqual() {
+		final var expected = new ConcurrentSkipListSet<Integer>();
+		final var actual = new ConcurrentSkipListSet<Integer>();
+		for (int i = 0; i < 500_000; i++) {
+			expected.add(i);
+			actual.add(i == 250_000 ? -1 : i);
+		}
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().endsWith("Missing: [250000], unexpected: [-1]."),
+					"Message should contain the missing and the unexpected item.");
+		}
+	}
+
+	@Test
+	public void largeSetsOfItemsWithoutConsistentHashCodesAreComparedInLinearTime() {
+		// TreeNodeObject overrides equals but not hashCode, so its items cannot be looked up by their hash codes
+		final var expected = new ArrayList<TreeNodeObject>();
+		final var actual = new ArrayList<TreeNodeObject>();
+		for (int i = 0; i < 10_000; i++) {
+			expected.add(new TreeNodeObject("node" + i));
+			actual.add(new TreeNodeObject(i == 5_000 ? "other" : "node" + i));
+		}
+		final var metrics = new ComparisonMetrics();
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(new ArrayDeque<>(expected)),
+					new GenericObjectContainingObject(new ArrayDeque<>(actual)),
+					ComparisonOptions.defaults().withMetrics(metrics));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().contains("2 items were different"), "Message should contain both items.");
+		}
+		// Only the two different items are searched for among all items
+		assertTrue(metrics.equalsCalls() < 100_000, "Items should be found by their fingerprints.");
+	}
 }
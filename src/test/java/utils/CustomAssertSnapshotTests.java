@@ -0,0 +1,324 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertMatchesSnapshot;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+import mocks.TreeNodeObject;
+
+public class CustomAssertSnapshotTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void missingSnapshotIsRecorded() {
+		final var snapshot = directory.resolve("object.snapshot");
+
+		assertMatchesSnapshot(new PrimitiveOnlyObject(1, 1.0, true, 'a'), snapshot);
+
+		assertTrue(Files.exists(snapshot));
+	}
+
+	@Test
+	public void equalObjectMatchesSnapshot() {
+		final var snapshot = directory.resolve("object.snapshot");
+		assertMatchesSnapshot(createGraph(1, "a"), snapshot);
+
+		assertMatchesSnapshot(createGraph(1, "a"), snapshot);
+	}
+
+	@Test
+	public void differentObjectDoesNotMatchSnapshot() {
+		final var snapshot = directory.resolve("object.snapshot");
+		assertMatchesSnapshot(createGraph(1, "a"), snapshot);
+		try {
+			assertMatchesSnapshot(createGraph(2, "b"), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object[0].intValue' to be '1' but was '2'." + System.lineSeparator()
+					+ "Expected '.object[1][name]' to be 'a' but was 'b'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void differencesOfCollectionsAreReportedLikeByAssertObjectsEqual() {
+		final var snapshot = directory.resolve("collections.snapshot");
+		assertMatchesSnapshot(new GenericObjectContainingObject(
+				List.of(new HashSet<>(Set.of("A", "B")), new int[] { 1, 2, 3 }, new ArrayList<>(List.of(1)))),
+				snapshot);
+		try {
+			assertMatchesSnapshot(new GenericObjectContainingObject(
+					List.of(new HashSet<>(Set.of("A", "C")), new int[] { 1, 5, 3 }, new ArrayList<>(List.of(1, 2)))),
+					snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object[0]' to contain same items, however 2 items were different. "
+					+ "Missing: [B], unexpected: [C]." + System.lineSeparator()
+					+ "Expected '.object[1][1]' to be '2' but was '5'." + System.lineSeparator()
+					+ "Expected '.object[2]' to be of size 1 but was of size 2.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void differencesOfMapsAreReportedLikeByAssertObjectsEqual() {
+		final var snapshot = directory.resolve("map.snapshot");
+		assertMatchesSnapshot(new HashMap<>(Map.of(DayOfWeek.MONDAY, 1.5, DayOfWeek.FRIDAY, 2.5)), snapshot);
+		try {
+			assertMatchesSnapshot(new HashMap<>(Map.of(DayOfWeek.MONDAY, 1.5, DayOfWeek.SUNDAY, 2.5)), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain key 'FRIDAY' but it was missing." + System.lineSeparator()
+					+ "Expected '' to not contain key 'SUNDAY' but it was present.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void sortedSetsAreMatchedWithTheirComparator() {
+		final var snapshot = directory.resolve("set.snapshot");
+		assertMatchesSnapshot(createSortedSet("a", "B"), snapshot);
+
+		assertMatchesSnapshot(createSortedSet("A", "b"), snapshot);
+		try {
+			assertMatchesSnapshot(createSortedSet("A", "c"), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain same items, however 2 items were different. "
+					+ "Missing: [B], unexpected: [c].", e.getMessage());
+		}
+	}
+
+	@Test
+	public void sortedSetsThatDifferInTypeAreSkipped() {
+		final var snapshot = directory.resolve("set.snapshot");
+		assertMatchesSnapshot(List.of(createSortedSet("a", "B"), "x"), snapshot);
+		try {
+			assertMatchesSnapshot(List.of(new HashSet<>(Set.of("a", "B")), "y"), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[0]' to be of type 'java.util.TreeSet' but was of type 'java.util.HashSet'."
+					+ System.lineSeparator() + "Expected '[1]' to be 'x' but was 'y'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void differencesOfSortedMapsAreReportedInKeyOrder() {
+		final var snapshot = directory.resolve("map.snapshot");
+		assertMatchesSnapshot(new TreeMap<>(Map.of("a", 1, "c", 3)), snapshot);
+		try {
+			assertMatchesSnapshot(new TreeMap<>(Map.of("b", 2, "c", 4)), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain key 'a' but it was missing." + System.lineSeparator()
+					+ "Expected '' to not contain key 'b' but it was present." + System.lineSeparator()
+					+ "Expected '[c]' to be '3' but was '4'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void nullAndTypeDifferencesAreReported() {
+		final var snapshot = directory.resolve("object.snapshot");
+		assertMatchesSnapshot(List.of(new GenericObjectContainingObject(null), new GenericObjectContainingObject(1)),
+				snapshot);
+		try {
+			assertMatchesSnapshot(
+					List.of(new GenericObjectContainingObject("a"), new GenericObjectContainingObject(1L)), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[0].object' to be null but was not null." + System.lineSeparator()
+					+ "Expected '[1].object' to be of type 'java.lang.Integer' but was of type 'java.lang.Long'.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void differentRootTypeIsReported() {
+		final var snapshot = directory.resolve("object.snapshot");
+		assertMatchesSnapshot(new PrimitiveOnlyObject(1, 1.0, true, 'a'), snapshot);
+		try {
+			assertMatchesSnapshot(new GenericObjectContainingObject(1), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected element to be of type 'mocks.PrimitiveOnlyObject' but was of type "
+					+ "'mocks.GenericObjectContainingObject'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void cyclicGraphMatchesSnapshot() {
+		final var snapshot = directory.resolve("cycle.snapshot");
+		assertMatchesSnapshot(createCycle("a", "b"), snapshot);
+
+		assertMatchesSnapshot(createCycle("a", "b"), snapshot);
+		try {
+			assertMatchesSnapshot(createCycle("a", "c"), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.child.name' to be 'b' but was 'c'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void maxDifferencesAreRespected() {
+		final var snapshot = directory.resolve("array.snapshot");
+		assertMatchesSnapshot(new long[] { 1, 2, 3 }, snapshot);
+		try {
+			assertMatchesSnapshot(new long[] { 4, 5, 6 }, snapshot, ComparisonOptions.defaults().withMaxDifferences(1));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[0]' to be '1' but was '4'." + System.lineSeparator()
+					+ "...and 2 more differences.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void valueTypesOfJdkAreComparedWithEquals() {
+		final var snapshot = directory.resolve("values.snapshot");
+		assertMatchesSnapshot(List.of(new BigDecimal("1.10"), LocalDate.of(2020, 1, 1)), snapshot);
+
+		assertMatchesSnapshot(List.of(new BigDecimal("1.10"), LocalDate.of(2020, 1, 1)), snapshot);
+		try {
+			assertMatchesSnapshot(List.of(new BigDecimal("1.1"), LocalDate.of(2020, 1, 2)), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[0]' to be '1.10' but was '1.1'." + System.lineSeparator()
+					+ "Expected '[1]' to be '2020-01-01' but was '2020-01-02'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void valuesWithComparatorAreComparedWithIt() {
+		final var snapshot = directory.resolve("comparator.snapshot");
+		final var options = ComparisonOptions.defaults().withComparators(
+				ComparatorRegistry.defaults().withComparator(BigDecimal.class, BigDecimal::compareTo));
+		assertMatchesSnapshot(List.of(new BigDecimal("1.10")), snapshot, options);
+
+		assertMatchesSnapshot(List.of(new BigDecimal("1.1")), snapshot, options);
+		try {
+			assertMatchesSnapshot(List.of(new BigDecimal("1.1")), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[0]' to be '1.10' but was '1.1'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void valuesWithComparatorThatAreNotSerializableCannotBeRecorded() {
+		final var snapshot = directory.resolve("comparator.snapshot");
+		final var options = ComparisonOptions.defaults().withComparators(ComparatorRegistry.defaults()
+				.withComparator(Label.class, (first, second) -> first.text.compareTo(second.text)));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> assertMatchesSnapshot(List.of(new Label("a")), snapshot, options));
+	}
+
+	@Test
+	public void recordedValuesOnlyContainClassesOfActualValue() {
+		final var snapshot = directory.resolve("comparator.snapshot");
+		final var options = ComparisonOptions.defaults().withComparators(ComparatorRegistry.defaults()
+				.withComparator(Box.class, (first, second) -> first.content.toString()
+						.compareTo(second.content.toString())));
+		assertMatchesSnapshot(new Box(new ArrayList<>(List.of("a"))), snapshot, options);
+
+		final var exception = assertThrows(IllegalStateException.class,
+				() -> assertMatchesSnapshot(new Box("[a]"), snapshot, options));
+		assertTrue(exception.getMessage().contains("'java.util.ArrayList'"), "Message should name the rejected class.");
+	}
+
+	@Test
+	public void deepGraphMatchesSnapshot() {
+		final var snapshot = directory.resolve("deep.snapshot");
+		assertMatchesSnapshot(createChain(200_000, "a"), snapshot);
+
+		assertMatchesSnapshot(createChain(200_000, "a"), snapshot);
+		try {
+			assertMatchesSnapshot(createChain(200_000, "b"), snapshot);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().endsWith(".child.name' to be 'a' but was 'b'."),
+					"Message should contain the difference at the end of the chain.");
+		}
+	}
+
+	@Test
+	public void setsOfObjectsCannotBeRecorded() {
+		final var snapshot = directory.resolve("set.snapshot");
+
+		assertThrows(IllegalArgumentException.class,
+				() -> assertMatchesSnapshot(Set.of(new PrimitiveOnlyObject(1, 1.0, true, 'a')), snapshot));
+		assertTrue(Files.notExists(snapshot));
+	}
+
+	private static GenericObjectContainingObject createGraph(int intValue, String name) {
+		return new GenericObjectContainingObject(new Object[] { new PrimitiveOnlyObject(intValue, 1.0, true, 'a'),
+				new HashMap<>(Map.of("name", name)) });
+	}
+
+	/**
+	 * Creates a chain of nodes in which only the last node has the given name.
+	 */
+	private static TreeNodeObject createChain(int length, String lastName) {
+		final var root = new TreeNodeObject("node");
+		var last = root;
+		for (int i = 1; i < length; i++) {
+			final var next = new TreeNodeObject(i == length - 1 ? lastName : "node");
+			last.setChild(next);
+			last = next;
+		}
+		return root;
+	}
+
+	private static TreeSet<String> createSortedSet(String... items) {
+		final var set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		set.addAll(List.of(items));
+		return set;
+	}
+
+	private static TreeNodeObject createCycle(String parentName, String childName) {
+		final var parent = new TreeNodeObject(parentName);
+		final var child = new TreeNodeObject(childName);
+		parent.setChild(child);
+		child.setChild(parent);
+		return parent;
+	}
+
+	private static final class Label {
+		private final String text;
+
+		private Label(String text) {
+			this.text = text;
+		}
+	}
+
+	private static final class Box implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final Serializable content;
+
+		private Box(Serializable content) {
+			this.content = content;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+
+public class CustomAssertStreamTests {
+
+	@Test
+	public void streamsWithSameItemsAreEqual() {
+		assertObjectsEqual(Stream.of(1, 2, 3), Stream.of(1, 2, 3).map(i -> i));
+	}
+
+	@Test
+	public void iteratorsOfDifferentCollectionsWithSameItemsAreEqual() {
+		assertObjectsEqual(List.of("A").iterator(), Set.of("A").iterator());
+	}
+
+	@Test
+	public void iteratorsAndStreamsAreNotEqual() {
+		try {
+			assertObjectsEqual(List.of("A").iterator(), Stream.of("A"));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().contains("type"), "Message should contain information about the types.");
+		}
+	}
+
+	@Test
+	public void streamsWithDifferentItemsAreNotEqual() {
+		final var expected = new GenericObjectContainingObject(Stream.of(new PrimitiveOnlyObject(1, 1.0, true, 'a'),
+				new PrimitiveOnlyObject(2, 2.0, true, 'b')));
+		final var actual = new GenericObjectContainingObject(Stream.of(new PrimitiveOnlyObject(1, 1.0, true, 'a'),
+				new PrimitiveOnlyObject(2, 2.0, true, 'c')));
+		try {
+			assertObjectsEqual(expected, actual);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object[1].charValue' to be 'b' but was 'c'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void streamsOfDifferentSizesAreNotEqual() {
+		try {
+			assertObjectsEqual(IntStream.range(0, 3), IntStream.range(0, 5));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to be of size 3 but was of size 5.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void itemsAreReportedBeforeDifferentSizes() {
+		try {
+			assertObjectsEqual(Stream.of(1, 2), Stream.of(1, 3, 4));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '[1]' to be '2' but was '3'." + System.lineSeparator()
+					+ "Expected '' to be of size 2 but was of size 3.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void largeStreamsAreComparedWithoutMaterializingThem() {
+		assertObjectsEqual(IntStream.range(0, 5_000_000).mapToObj(i -> new PrimitiveOnlyObject(i, i, true, 'a')),
+				IntStream.range(0, 5_000_000).mapToObj(i -> new PrimitiveOnlyObject(i, i, true, 'a')));
+	}
+
+	@Test
+	public void oneShotIterablesAreOnlyIteratedOnce() {
+		final var expected = new GenericObjectContainingObject(new OneShotIterable<>(List.of(1, 2, 3).iterator()));
+		final var actual = new GenericObjectContainingObject(new OneShotIterable<>(List.of(3, 2, 1).iterator()));
+		assertObjectsEqual(expected, actual);
+
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(new OneShotIterable<>(List.of(1, 2, 3).iterator())),
+					new GenericObjectContainingObject(new OneShotIterable<>(List.of(1, 2, 4).iterator())));
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to contain same items, however 2 items were different. "
+					+ "Missing: [3], unexpected: [4].", e.getMessage());
+		}
+	}
+
+	private static final class OneShotIterable<T> implements Iterable<T> {
+		private final Iterator<T> items;
+		private boolean iterated;
+
+		private OneShotIterable(Iterator<T> items) {
+			this.items = items;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			if (iterated) {
+				throw new IllegalStateException("Cannot be iterated twice.");
+			}
+			iterated = true;
+			return items;
+		}
+	}
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import mocks.PrimitiveOnlyRecord;
+import mocks.DerivedPrimitiveOnlyObject;
 import mocks.GenericObjectContainingObject;
 import mocks.GenericObjectContainingObject2;
 import mocks.PrimitiveOnlyObject;
@@ -13,6 +14,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static utils.CustomAssert.assertObjectsEqual;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
 public class CustomAssertTests {
@@ -82,6 +84,25 @@ public class CustomAssertTests {
         }
     }
 
+    @Test
+    public void primitiveOnlyObjectsWithNaNValuesAreEqual() {
+        assertObjectsEqual(new PrimitiveOnlyObject(1, Double.NaN, false, 'A'),
+                new PrimitiveOnlyObject(1, Double.NaN, false, 'A'));
+    }
+
+    @Test
+    public void primitiveOnlyObjectsWithDifferentlySignedZerosAreNotEqual() {
+        try {
+            assertObjectsEqual(new PrimitiveOnlyObject(1, 0.0, false, 'A'),
+                    new PrimitiveOnlyObject(1, -0.0, false, 'A'));
+            fail("Should have thrown an exception");
+        } catch (AssertionError e) {
+            // Message is: "Expected '.doubleValue' to be '0.0' but was '-0.0'."
+            assertTrue(e.getMessage().contains("Expected '.doubleValue' to be '0.0' but was '-0.0'."),
+                    "Message should contain path and both values.");
+        }
+    }
+
     @Test
     public void nestedObjectsWithSameValuesAreEqualOnlyLevelOne() {
         assertObjectsEqual(new TreeNodeObject("Some text"), new TreeNodeObject("Some text"));
@@ -133,6 +154,29 @@ public class CustomAssertTests {
         }
     }
 
+    @Test
+    public void derivedObjectsWithSameValuesAreEqual() {
+        assertObjectsEqual(new DerivedPrimitiveOnlyObject(1, 2, false, 'A', "label"),
+                new DerivedPrimitiveOnlyObject(1, 2, false, 'A', "label"));
+    }
+
+    @Test
+    public void derivedObjectsWithDifferentInheritedValuesAreNotEqual() {
+        try {
+            assertObjectsEqual(new DerivedPrimitiveOnlyObject(1, 2, false, 'A', "label"),
+                    new DerivedPrimitiveOnlyObject(1, 2, false, 'B', "other label"));
+            fail("Should have thrown an exception");
+        } catch (AssertionError e) {
+            // Message is:
+            // "Expected '.charValue' to be 'A' but was 'B'.
+            // Expected '.label' to be 'label' but was 'other label'."
+            assertTrue(e.getMessage().contains(".charValue"), "Message should contain path of inherited field.");
+            assertTrue(e.getMessage().contains(".label"), "Message should contain path of declared field.");
+            assertTrue(e.getMessage().indexOf(".charValue") < e.getMessage().indexOf(".label"),
+                    "Inherited fields should be reported first.");
+        }
+    }
+
     @Test
     public void allErrorsAreBeingReported() {
         var expectedElement = new TreeNodeObject("Some text");
@@ -165,6 +209,75 @@ public class CustomAssertTests {
         }
     }
 
+    @Test
+    public void veryDeeplyNestedObjectsCanBeCompared() {
+        var expectedElement = generateNestedObjectsIteratively(100_000, new TreeNodeObject("Some text"));
+        var actualElement = generateNestedObjectsIteratively(100_000, new TreeNodeObject("Some text"));
+        assertObjectsEqual(expectedElement, actualElement);
+
+        var deepestElement = actualElement;
+        while (deepestElement.getChild() != null) {
+            deepestElement = deepestElement.getChild();
+        }
+        deepestElement.setName("non-element");
+        try {
+            assertObjectsEqual(expectedElement, actualElement);
+            fail("Should have thrown an exception");
+        } catch (AssertionError e) {
+            // Message is: "Expected '.child.child[...].child.name' to be 'element' but was 'non-element'."
+            assertTrue(e.getMessage().startsWith("Expected '" + ".child".repeat(100_000) + ".name'"),
+                    "Message should contain path.");
+            assertTrue(e.getMessage().endsWith("to be 'element' but was 'non-element'."),
+                    "Message should contain both values.");
+        }
+    }
+
+    @Test
+    public void cyclicObjectsWithSameValuesAreEqual() {
+        var expectedElement = new TreeNodeObject("Some text");
+        expectedElement.setChild(new TreeNodeObject("element"));
+        expectedElement.getChild().setChild(expectedElement);
+
+        var actualElement = new TreeNodeObject("Some text");
+        actualElement.setChild(new TreeNodeObject("element"));
+        actualElement.getChild().setChild(actualElement);
+        assertObjectsEqual(expectedElement, actualElement);
+    }
+
+    @Test
+    public void cyclicObjectsWithDifferentValuesAreNotEqual() {
+        var expectedElement = new TreeNodeObject("Some text");
+        expectedElement.setChild(new TreeNodeObject("element"));
+        expectedElement.getChild().setChild(expectedElement);
+
+        var actualElement = new TreeNodeObject("Some text");
+        actualElement.setChild(new TreeNodeObject("non-element"));
+        actualElement.getChild().setChild(actualElement);
+        try {
+            assertObjectsEqual(expectedElement, actualElement);
+            fail("Should have thrown an exception");
+        } catch (AssertionError e) {
+            // Message is: "Expected '.child.name' to be 'element' but was 'non-element'."
+            assertTrue(e.getMessage().equals("Expected '.child.name' to be 'element' but was 'non-element'."),
+                    "Message should contain the difference exactly once.");
+        }
+    }
+
+    @Test
+    public void sharedObjectsAreOnlyComparedOnce() {
+        var expectedElement = generateNestedObjects(2, new TreeNodeObject("Some text"));
+        var actualElement = generateNestedObjects(2, new TreeNodeObject("Other text"));
+        try {
+            assertObjectsEqual(new TreeNodeObject[] { expectedElement, expectedElement },
+                    new TreeNodeObject[] { actualElement, actualElement });
+            fail("Should have thrown an exception");
+        } catch (AssertionError e) {
+            // Message is: "Expected '[0].name' to be 'Some text' but was 'Other text'."
+            assertTrue(e.getMessage().equals("Expected '[0].name' to be 'Some text' but was 'Other text'."),
+                    "Message should only contain the difference of the first occurrence.");
+        }
+    }
+
 	@Test
 	public void differentListTypesAsPropertiesAreNotEqual() {
 		try {
@@ -241,6 +354,15 @@ public class CustomAssertTests {
         }
     }
 
+    public static TreeNodeObject generateNestedObjectsIteratively(int depth, TreeNodeObject parent) {
+        var current = parent;
+        for (int i = 0; i < depth; i++) {
+            current.setChild(new TreeNodeObject("element"));
+            current = current.getChild();
+        }
+        return parent;
+    }
+
     public static TreeNodeObject generateNestedObjects(int depth, TreeNodeObject parent) {
         if (depth > 0) {
             parent.setChild(new TreeNodeObject("element"));
@@ -248,4 +370,9 @@ public class CustomAssertTests {
         }
         return parent;
     }
+
+    public static GenericObjectContainingObject generateObjectContainingList(int lastValue) {
+        return new GenericObjectContainingObject(new ArrayList<>(List.of(new PrimitiveOnlyObject(1, 1.0, true, 'a'),
+                new PrimitiveOnlyObject(2, 2.0, true, 'b'), new PrimitiveOnlyObject(lastValue, 3.0, true, 'c'))));
+    }
 }
@@ -0,0 +1,96 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static utils.CustomAssert.assertObjectsEqual;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import mocks.GenericObjectContainingObject;
+import mocks.PrimitiveOnlyObject;
+
+public class CustomAssertUnorderedTests {
+
+	private static final ComparisonOptions UNORDERED = ComparisonOptions.defaults().withUnorderedCollections(true);
+
+	@Test
+	public void listsWithSameItemsInDifferentOrderAreEqual() {
+		assertObjectsEqual(List.of(new PrimitiveOnlyObject(1, 1, true, 'a'), new PrimitiveOnlyObject(2, 2, true, 'b')),
+				List.of(new PrimitiveOnlyObject(2, 2, true, 'b'), new PrimitiveOnlyObject(1, 1, true, 'a')),
+				UNORDERED);
+	}
+
+	@Test
+	public void listsWithSameItemsInDifferentOrderAreNotEqualByDefault() {
+		assertThrows(AssertionError.class, () -> assertObjectsEqual(List.of(1, 2), List.of(2, 1)));
+	}
+
+	@Test
+	public void arraysWithSameItemsInDifferentOrderAreEqual() {
+		assertObjectsEqual(new int[] { 1, 2, 3 }, new int[] { 3, 1, 2 }, UNORDERED);
+		assertObjectsEqual(new Object[] { "A", null, 1 }, new Object[] { 1, "A", null }, UNORDERED);
+	}
+
+	@Test
+	public void nestedListsAreComparedInAnyOrder() {
+		assertObjectsEqual(List.of(new GenericObjectContainingObject(List.of(1, 2)), new GenericObjectContainingObject(List.of(3))),
+				List.of(new GenericObjectContainingObject(List.of(3)), new GenericObjectContainingObject(List.of(2, 1))),
+				UNORDERED);
+	}
+
+	@Test
+	public void occurrencesOfItemsAreCounted() {
+		try {
+			assertObjectsEqual(List.of(1, 1, 2), List.of(1, 2, 2), UNORDERED);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to contain same items in any order, however 2 items were different. "
+					+ "Missing: [1], unexpected: [2].", e.getMessage());
+		}
+	}
+
+	@Test
+	public void surplusOfItemsIsReported() {
+		try {
+			assertObjectsEqual(new GenericObjectContainingObject(List.of("A", "A", "A", "B")),
+					new GenericObjectContainingObject(List.of("B", "B", "B", "A")), UNORDERED);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '.object' to contain same items in any order, however 4 items were different. "
+					+ "Missing: [A (2 times)], unexpected: [B (2 times)].", e.getMessage());
+		}
+	}
+
+	@Test
+	public void differentSizesAreReportedFirst() {
+		try {
+			assertObjectsEqual(new ArrayList<>(List.of(1, 2)), new ArrayList<>(List.of(1, 2, 3)), UNORDERED);
+			fail("Should have thrown an exception");
+		} catch (AssertionError e) {
+			assertEquals("Expected '' to be of size 2 but was of size 3.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void largeShuffledListsAreEqual() {
+		final var expected = generateObjects(100_000);
+		final var actual = generateObjects(100_000);
+		Collections.shuffle(actual, new Random(42));
+
+		assertObjectsEqual(expected, actual, UNORDERED);
+	}
+
+	private static List<PrimitiveOnlyObject> generateObjects(int count) {
+		final var objects = new ArrayList<PrimitiveOnlyObject>(count);
+		for (int i = 0; i < count; i++) {
+			objects.add(new PrimitiveOnlyObject(i, i, i % 2 == 0, 'a'));
+		}
+		return objects;
+	}
+}